@@ -0,0 +1,68 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.benchmark.BenchmarkContext;
+import jpabook.jpashop.datagen.BulkDataGenerator;
+import jpabook.jpashop.datagen.DataGenProfile;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /api/v5/orders 부하 테스트 : 톰캣 플랫폼 스레드 풀 vs 가상 스레드(+ JDBC limiter)
+ * 내장 톰캣을 띄우고 클라이언트 스레드 256개가 동시에 HTTP 요청을 보낸다. (톰캣 기본 스레드 200개보다 많게)
+ * - 처리량 : Throughput
+ * - p99 응답 시간 : SampleTime 결과의 p0.99
+ * 가상 스레드는 Java 21 이상에서만 동작하므로 ./gradlew jmh -PjavaVersion=21 -Pjmh.includes=OrderApiLoadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(256)
+public class OrderApiLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"TINY"})
+    private DataGenProfile size;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = threads.equals("virtual");
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("가상 스레드 모드는 Java 21 이상에서 실행해야 한다. (-PjavaVersion=21)");
+        }
+        context = BenchmarkContext.startWeb("order-load-" + threads,
+                "spring.threads.virtual.enabled=" + virtual,
+                "logging.level.jpabook.jpashop.monitoring=error"); // N+1 경고 로그 제외
+        context.getBean(BulkDataGenerator.class).generate(size, 42);
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v5/orders")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int ordersV5() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("status=" + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
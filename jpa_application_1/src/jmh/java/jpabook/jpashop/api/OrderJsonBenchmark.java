@@ -0,0 +1,95 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 DTO JSON 직렬화 : 리플렉션 기반 기본 직렬화 vs OrderJsonModule
+ * 응답 출력 스트림에 쓰는 것처럼 byte[]를 만들지 않고 OutputStream.nullOutputStream()에 쓴다.
+ * - 처리량 : Throughput
+ * - 할당량 : gc 프로파일러의 gc.alloc.rate.norm (직렬화 1번당 할당 바이트)
+ * ./gradlew jmh -Pjmh.includes=OrderJsonBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderJsonBenchmark {
+
+    @Param({"reflective", "specialized"})
+    private String serializer;
+
+    @Param({"1000"})
+    private int orders;
+
+    private ObjectMapper objectMapper;
+    private final OutputStream out = OutputStream.nullOutputStream();
+    private List<OrderQueryDto> queryDtos;
+    private List<OrderFlatDto> flatDtos;
+    private List<OrderApiController.OrderDto> orderDtos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // nullOutputStream은 close 후 쓰면 예외
+        if (serializer.equals("specialized")) {
+            builder.modulesToInstall(new OrderJsonModule());
+        }
+        objectMapper = builder.build();
+
+        queryDtos = new ArrayList<>();
+        flatDtos = new ArrayList<>();
+        orderDtos = new ArrayList<>();
+        LocalDateTime orderDate = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (long id = 1; id <= orders; id++) {
+            Address address = new Address("서울", "길거리" + id, String.format("%05d", id));
+            List<OrderItemQueryDto> items = new ArrayList<>();
+            List<OrderItem> orderItems = new ArrayList<>();
+            for (int line = 1; line <= 3; line++) {
+                items.add(new OrderItemQueryDto(id, "BOOK" + line, line * 1000, line));
+                flatDtos.add(new OrderFlatDto(id, "user" + id, orderDate, OrderStatus.ORDER, address, "BOOK" + line, line * 1000, line));
+                orderItems.add(OrderItem.createOrderItem(Book.createBook("BOOK" + line, line * 1000, 100, "", ""), line * 1000, line));
+            }
+            queryDtos.add(new OrderQueryDto(id, "user" + id, orderDate, OrderStatus.ORDER, address, items));
+
+            Member member = new Member();
+            member.setUsername("user" + id);
+            Delivery delivery = new Delivery();
+            delivery.setAddress(address);
+            orderDtos.add(new OrderApiController.OrderDto(Order.createOrder(member, delivery, orderItems.toArray(new OrderItem[0]))));
+        }
+    }
+
+    @Benchmark
+    public void queryDto() throws IOException {
+        objectMapper.writeValue(out, queryDtos);
+    }
+
+    @Benchmark
+    public void flatDto() throws IOException {
+        objectMapper.writeValue(out, flatDtos);
+    }
+
+    @Benchmark
+    public void entityDto() throws IOException {
+        objectMapper.writeValue(out, orderDtos);
+    }
+}
@@ -0,0 +1,143 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.benchmark.BenchmarkContext;
+import jpabook.jpashop.datagen.BulkDataGenerator;
+import jpabook.jpashop.datagen.DataGenProfile;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 주문 조회 전략 V1~V6 비교 (OrderApiController, OrderSimpleApiController)
+ * BulkDataGenerator로 size 만큼 데이터를 넣은 메모리 H2에서 컨트롤러 메서드 호출 + JSON 직렬화까지 측정한다.
+ * - 처리량 : Throughput
+ * - 할당량 : gc 프로파일러 (build.gradle jmh.profilers)
+ * - SQL 수 : sqlPerOp (호출 1번에 실행된 JDBC statement 수, Hibernate 통계)
+ * OSIV와 같게 읽기 전용 트랜잭션 안에서 직렬화까지 끝내서 지연 로딩 쿼리도 포함한다.
+ * V1, V2는 findAllByString의 최대 1000건 제한이 있으므로 size가 커지면 조회 건수가 다르다는 점에 주의
+ * ./gradlew jmh -Pjmh.includes=OrderQueryStrategyBenchmark
+ * 더 큰 데이터는 -p size=MEDIUM (V2, V4는 N+1 때문에 매우 오래 걸린다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderQueryStrategyBenchmark {
+
+    @Param({"TINY", "SMALL"})
+    private DataGenProfile size;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTx;
+    private ObjectMapper objectMapper;
+    private Statistics statistics;
+    private OrderApiController orderApi;
+    private OrderSimpleApiController orderSimpleApi;
+    private OrderQueryRepository orderQueryRepository;
+
+    /**
+     * 호출 1번에 실행된 SQL 수
+     * 같은 데이터에서는 호출마다 값이 같으므로 마지막 호출 값을 그대로 보고한다. (스레드 1개 기준)
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long sqlPerOp;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("order-strategy-" + size.name().toLowerCase(),
+                "spring.jpa.properties.hibernate.generate_statistics=true");
+        context.getBean(BulkDataGenerator.class).generate(size, 42);
+
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        objectMapper = context.getBean(ObjectMapper.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        orderApi = context.getBean(OrderApiController.class);
+        orderSimpleApi = context.getBean(OrderSimpleApiController.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] v1_entity(SqlCounter counter) {
+        return call(counter, orderApi::ordersV1);
+    }
+
+    @Benchmark
+    public byte[] v2_dto(SqlCounter counter) {
+        return call(counter, orderApi::ordersV2);
+    }
+
+    @Benchmark
+    public byte[] v3_fetchJoin(SqlCounter counter) {
+        return call(counter, orderApi::ordersV3);
+    }
+
+    @Benchmark
+    public byte[] v4_dtoQuery(SqlCounter counter) {
+        return call(counter, orderApi::ordersV4);
+    }
+
+    @Benchmark
+    public byte[] v5_dtoQueryBatch(SqlCounter counter) {
+        return call(counter, orderQueryRepository::findAllByDto_optimization); // ordersV5에서 ETag 확인을 뺀 부분
+    }
+
+    @Benchmark
+    public byte[] v6_flat(SqlCounter counter) {
+        return call(counter, orderApi::ordersV6);
+    }
+
+    @Benchmark
+    public byte[] simple_v1_entity(SqlCounter counter) {
+        return call(counter, orderSimpleApi::ordersV1);
+    }
+
+    @Benchmark
+    public byte[] simple_v2_dto(SqlCounter counter) {
+        return call(counter, orderSimpleApi::ordersV2);
+    }
+
+    @Benchmark
+    public byte[] simple_v3_fetchJoin(SqlCounter counter) {
+        return call(counter, orderSimpleApi::ordersV3);
+    }
+
+    @Benchmark
+    public byte[] simple_v4_dtoQuery(SqlCounter counter) {
+        return call(counter, orderSimpleApi::ordersV4);
+    }
+
+    @Benchmark
+    public byte[] simple_v5_summary(SqlCounter counter) {
+        return call(counter, orderSimpleApi::ordersV5);
+    }
+
+    private byte[] call(SqlCounter counter, Supplier<?> endpoint) {
+        long before = statistics.getPrepareStatementCount();
+        byte[] json = readOnlyTx.execute(status -> {
+            try {
+                return objectMapper.writeValueAsBytes(endpoint.get());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        counter.sqlPerOp = statistics.getPrepareStatementCount() - before;
+        return json;
+    }
+}
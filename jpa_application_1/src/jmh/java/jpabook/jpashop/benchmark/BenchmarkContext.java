@@ -0,0 +1,49 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ * TCP H2 대신 메모리 H2를 사용하고, SQL/바인딩 로그는 측정에 영향을 주므로 끈다.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String databaseName, String... properties) {
+        return start(WebApplicationType.NONE, databaseName, properties);
+    }
+
+    /**
+     * 내장 톰캣까지 띄운다. (임의 포트, local.server.port)
+     */
+    public static ConfigurableApplicationContext startWeb(String databaseName, String... properties) {
+        List<String> props = new ArrayList<>(Arrays.asList(properties));
+        props.add("server.port=0");
+        return start(WebApplicationType.SERVLET, databaseName, props.toArray(new String[0]));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String databaseName, String... properties) {
+        List<String> props = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                "spring.devtools.restart.enabled=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "decorator.datasource.p6spy.enable-logging=false",
+                "logging.level.org.hibernate.SQL=warn",
+                "logging.level.org.hibernate.orm.jdbc.bind=warn"));
+        props.addAll(Arrays.asList(properties));
+
+        return new SpringApplicationBuilder(JpashopApplication.class)
+                .web(type)
+                .properties(props.toArray(new String[0]))
+                .run();
+    }
+}
@@ -0,0 +1,82 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.benchmark.BenchmarkContext;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 동적 주문 검색 구현 비교
+ * - findAllByString : 문자열 조립 JPQL
+ * - findAllByCriteria : 매번 Criteria 트리 생성
+ * - findAll : QueryDSL
+ * - OrderSearchEngine : 조건 조합별로 미리 등록한 Named Query
+ * ./gradlew jmh -Pjmh.includes=OrderSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderSearchBenchmark {
+
+    @Param({"none", "status", "name", "both"})
+    private String condition;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTx;
+    private OrderRepository orderRepository;
+    private OrderSearchEngine orderSearchEngine;
+    private OrderSearch orderSearch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("order-search");
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderSearchEngine = context.getBean(OrderSearchEngine.class);
+
+        orderSearch = new OrderSearch();
+        if (condition.equals("status") || condition.equals("both")) {
+            orderSearch.setOrderStatus(OrderStatus.ORDER);
+        }
+        if (condition.equals("name") || condition.equals("both")) {
+            orderSearch.setMemberName("userA");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Order> string() {
+        return inTx(orderRepository::findAllByString);
+    }
+
+    @Benchmark
+    public List<Order> criteria() {
+        return inTx(orderRepository::findAllByCriteria);
+    }
+
+    @Benchmark
+    public List<Order> querydsl() {
+        return inTx(orderRepository::findAll);
+    }
+
+    @Benchmark
+    public List<Order> prepared() {
+        return inTx(orderSearchEngine::search);
+    }
+
+    private List<Order> inTx(Function<OrderSearch, List<Order>> search) {
+        return readOnlyTx.execute(status -> search.apply(orderSearch));
+    }
+}
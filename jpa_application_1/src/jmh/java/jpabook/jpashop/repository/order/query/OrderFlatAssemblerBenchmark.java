@@ -0,0 +1,66 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.*;
+
+/**
+ * V6.1(groupingBy)와 V6.2(OrderFlatAssembler)의 플랫 -> 중첩 DTO 변환 비교
+ * ./gradlew jmh -Pjmh.includes=OrderFlatAssemblerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderFlatAssemblerBenchmark {
+
+    @Param({"1000", "100000"})
+    private int orderCount;
+
+    @Param({"2", "5"})
+    private int itemsPerOrder;
+
+    private List<OrderFlatDto> flats;
+
+    @Setup
+    public void setUp() {
+        Address address = new Address("서울", "길거리", "54321");
+        LocalDateTime now = LocalDateTime.now();
+        flats = new ArrayList<>(orderCount * itemsPerOrder);
+        for (long orderId = 1; orderId <= orderCount; orderId++) {
+            for (int i = 0; i < itemsPerOrder; i++) {
+                flats.add(new OrderFlatDto(orderId, "user" + orderId, now, OrderStatus.ORDER, address, "item" + i, 10000, i + 1));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> groupingBy_V61() {
+        return flats.stream()
+                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(),
+                                o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
+                        mapping(o -> new OrderItemQueryDto(o.getOrderId(),
+                                o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
+                )).entrySet().stream()
+                .map(e -> new OrderQueryDto(
+                        e.getKey().getOrderId(),
+                        e.getKey().getName(),
+                        e.getKey().getOrderDate(),
+                        e.getKey().getOrderStatus(),
+                        e.getKey().getAddress(),
+                        e.getValue()
+                ))
+                .collect(toList());
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> assembler_V62() {
+        return OrderFlatAssembler.assemble(flats);
+    }
+}
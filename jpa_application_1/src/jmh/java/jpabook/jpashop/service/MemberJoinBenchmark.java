@@ -0,0 +1,57 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.benchmark.BenchmarkContext;
+import jpabook.jpashop.datagen.BulkDataGenerator;
+import jpabook.jpashop.datagen.DataGenProfile;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberNameBloomFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원 가입 처리량 : 중복 검사 Bloom filter 사용 여부 비교
+ * 새 이름으로만 가입하므로 bloom=true 이면 대부분 findByName 조회 없이 insert 1번으로 끝난다.
+ * ./gradlew jmh -Pjmh.includes=MemberJoinBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberJoinBenchmark {
+
+    @Param({"true", "false"})
+    private boolean bloom;
+
+    @Param({"SMALL"})
+    private DataGenProfile size;
+
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("member-join-" + bloom + "-" + size.name().toLowerCase(),
+                "jpashop.member-bloom.enabled=" + bloom);
+        context.getBean(BulkDataGenerator.class).generate(size, 42);
+        context.getBean(MemberNameBloomFilter.class).rebuild(); // JDBC로 직접 넣은 회원 반영
+        memberService = context.getBean(MemberService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Long join() {
+        Member member = new Member();
+        member.setUsername("bench" + sequence.incrementAndGet());
+        member.setAddress(new Address("서울", "길거리", "00000"));
+        return memberService.join(member);
+    }
+}
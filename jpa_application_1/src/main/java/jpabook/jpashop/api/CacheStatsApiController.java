@@ -0,0 +1,85 @@
+package jpabook.jpashop.api;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 2차 캐시 region별 hit/miss/put/eviction 통계
+ * 캐시 크기(heap entries)와 TTL을 정할 때 참고하기 위한 API
+ */
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsApiController {
+
+    private final EntityManagerFactory emf;
+
+    @GetMapping("/api/cache/stats")
+    public Result<List<RegionStatsDto>> cacheStats() {
+        SessionFactory sessionFactory = emf.unwrap(SessionFactory.class);
+        Statistics statistics = sessionFactory.getStatistics();
+
+        List<RegionStatsDto> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(region -> {
+                    CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+                    return new RegionStatsDto(region, stats.getHitCount(), stats.getMissCount(),
+                            stats.getPutCount(), findEvictions(region), stats.getElementCountInMemory());
+                })
+                .collect(toList());
+        return new Result<>(regions);
+    }
+
+    /**
+     * 하이버네이트 통계에는 eviction 수가 없어서 JCache가 JMX로 노출하는 CacheStatisticsMXBean에서 가져온다.
+     * (ehcache.xml 에서 enable-statistics 설정 필요, 없으면 -1)
+     */
+    private long findEvictions(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + ObjectName.quote(region)), null);
+            if (names.isEmpty()) {
+                names = server.queryNames(
+                        new ObjectName("javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + region), null);
+            }
+            if (names.isEmpty()) {
+                return -1;
+            }
+            return (Long) server.getAttribute(names.iterator().next(), "CacheEvictions");
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class RegionStatsDto {
+        private String region;
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long evictionCount;
+        private long elementCountInMemory;
+    }
+}
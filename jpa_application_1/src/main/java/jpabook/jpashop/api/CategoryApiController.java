@@ -0,0 +1,47 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.service.CategoryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+
+    private final CategoryService categoryService;
+
+    /**
+     * 카테고리와 하위 카테고리에 속한 모든 상품
+     * 카테고리 트리는 메모리 스냅샷에서 찾기 때문에 계층 깊이와 상관없이 상품 조회 쿼리 1번
+     */
+    @GetMapping("/api/v1/categories/{categoryId}/items")
+    public Result<List<CategoryItemDto>> itemsUnder(@PathVariable("categoryId") Long categoryId) {
+        List<Item> items = categoryService.findItemsUnder(categoryId);
+        return new Result<>(items.stream()
+                .map(i -> new CategoryItemDto(i.getId(), i.getName(), i.getPrice()))
+                .collect(toList()));
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CategoryItemDto {
+        private Long itemId;
+        private String name;
+        private int price;
+    }
+}
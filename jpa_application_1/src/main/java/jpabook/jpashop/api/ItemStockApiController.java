@@ -0,0 +1,43 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.StockService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class ItemStockApiController {
+
+    private final StockService stockService;
+
+    /**
+     * 상품 재고 (상품 row + stripe)
+     */
+    @GetMapping("/api/v1/items/{itemId}/stock")
+    public ItemStockDto stock(@PathVariable("itemId") Long itemId) {
+        return new ItemStockDto(itemId, stockService.availableStock(itemId));
+    }
+
+    /**
+     * 주문이 몰리는 상품의 재고를 stripe row로 나눈다. (관리자)
+     */
+    @PostMapping("/api/v1/items/{itemId}/stripes")
+    public ItemStockDto stripe(@PathVariable("itemId") Long itemId,
+                               @RequestParam(value = "stripes", defaultValue = "8") int stripes) {
+        stockService.stripe(itemId, stripes);
+        return new ItemStockDto(itemId, stockService.availableStock(itemId));
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class ItemStockDto {
+        private Long itemId;
+        private int stock;
+    }
+}
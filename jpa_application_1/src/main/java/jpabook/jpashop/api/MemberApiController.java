@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -113,9 +114,13 @@ public class MemberApiController {
      * 엔티티를 DTO로 변환해서 반환한다.
      * 엔티티가 변해도 API 스펙이 변경되지 않는다.
      * 추가로 `Result` 클래스로 컬렉션을 감싸서 향후 필요한 필드를 추가할 수 있다.
+     * 조건부 GET : 회원 테이블이 바뀌지 않았으면 조회/직렬화 없이 304 Not Modified
      */
     @GetMapping("/api/v2/members")
-    public Result membersV2() {
+    public Result membersV2(WebRequest webRequest) {
+        if (webRequest.checkNotModified(memberService.findMembersETag())) {
+            return null;
+        }
         List<Member> findMembers = memberService.findMembers();
         List<MemberDto> collect = findMembers.stream()
                 .map(m -> new MemberDto(m.getUsername()))
@@ -1,26 +1,51 @@
 package jpabook.jpashop.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderCursor;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
 import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.OptimisticRetryExecutor;
+import jpabook.jpashop.service.OrderBulkCancelService;
+import jpabook.jpashop.service.OrderBulkCancelService.BulkCancelResult;
+import jpabook.jpashop.service.OrderLine;
+import jpabook.jpashop.service.OrderService;
 import jpabook.jpashop.service.query.OrderDto;
 import jpabook.jpashop.service.query.OrderQueryService;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.*;
@@ -47,8 +72,17 @@ import static java.util.stream.Collectors.*;
 @RequiredArgsConstructor
 public class OrderApiController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+    private final OrderService orderService;
+    private final OrderBulkCancelService orderBulkCancelService;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Value("${jpashop.export.fetch-size:1000}")
+    private int exportFetchSize;
 
     /**
      * 주문 조회 V1: 엔티티 직접 노출
@@ -140,6 +174,41 @@ public class OrderApiController {
         return orders.stream().map(o -> new OrderDto(o)).collect(toList());
     }
 
+    /**
+     * 주문 조회 V3.2 : 엔티티를 DTO로 변환, 키셋(커서) 페이징
+     * offset 대신 마지막으로 조회한 (주문일시, 주문ID) 다음부터 조회하기 때문에 페이지가 깊어져도 조회 시간이 일정하다.
+     * 다음 페이지가 없으면 nextCursor는 null, limit은 최대 MAX_CURSOR_PAGE_SIZE 건
+     */
+    @GetMapping("api/v3.2/orders")
+    public CursorResult<List<OrderDto>> ordersV3_cursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+    ) {
+        if (limit < 1) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit은 1 이상이어야 합니다.");
+        limit = Math.min(limit, MAX_CURSOR_PAGE_SIZE);
+        OrderCursor orderCursor;
+        try {
+            orderCursor = cursor == null ? null : OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        List<Order> orders = orderRepository.findAllWithMemberDelivery(orderCursor, limit + 1); // 다음 페이지 존재 여부 확인을 위해 1건 더 조회
+
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = orders.subList(0, limit);
+            nextCursor = OrderCursor.of(orders.get(limit - 1)).encode();
+        }
+        return new CursorResult<>(orders.stream().map(o -> new OrderDto(o)).collect(toList()), nextCursor);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+        private T data;
+        private String nextCursor;
+    }
+
     /**
      * 주문 조회 V4 : JPA에서 DTO 직접 조회
      */
@@ -150,9 +219,14 @@ public class OrderApiController {
 
     /**
      * 주문 조회 V5 : JPA에서 DTO 직접 조회, 컬렉션 조회 최적화
+     * 조건부 GET : 주문/회원/상품이 바뀌지 않았으면 조회/직렬화 없이 304 Not Modified
+     * (ETag를 먼저 계산하므로 그 사이에 데이터가 바뀌어도 다음 요청에서 다시 받는다)
      */
     @GetMapping("api/v5/orders")
-    public List<OrderQueryDto> ordersV5() {
+    public List<OrderQueryDto> ordersV5(WebRequest webRequest) {
+        if (webRequest.checkNotModified(orderQueryService.findOrdersETag())) {
+            return null;
+        }
         return orderQueryRepository.findAllByDto_optimization();
     }
 
@@ -164,6 +238,16 @@ public class OrderApiController {
         return orderQueryRepository.findAllByDto_flat();
     }
 
+    /**
+     * 주문 조회 V6 스트리밍 : 플랫 데이터를 NDJSON(한 줄에 JSON 하나)으로 내려준다.
+     * 리스트로 모아서 한번에 직렬화하지 않고 스크롤로 읽은 row를 바로 응답 스트림에 쓰기 때문에
+     * 전체 내보내기를 해도 힙 사용량이 일정하다.
+     */
+    @GetMapping(value = "api/v6/orders/stream", produces = "application/x-ndjson")
+    public void ordersV6_stream(HttpServletResponse response) throws IOException {
+        writeNdjson(response, writer -> orderQueryRepository.streamAllByDto_flat(exportFetchSize, writer));
+    }
+
     @GetMapping("api/v6.1/orders")
     public List<OrderQueryDto> ordersDistinctV6() {
         List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
@@ -184,4 +268,92 @@ public class OrderApiController {
                 ))
                 .collect(toList());
     }
+
+    /**
+     * 주문 조회 V6.2 : 플랫 데이터를 o.id 순으로 조회해서 한 번에 접는다.
+     * V6.1의 groupingBy와 달리 중간 Map 없이 순서대로 결과가 만들어진다.
+     */
+    @GetMapping("api/v6.2/orders")
+    public List<OrderQueryDto> ordersOrderedV6() {
+        return OrderFlatAssembler.assemble(orderQueryRepository.findAllByDto_flatOrderById());
+    }
+
+    /**
+     * 주문 조회 V6.2 스트리밍 : 스크롤로 읽으면서 접은 주문을 하나씩 NDJSON으로 내려준다.
+     */
+    @GetMapping(value = "api/v6.2/orders/stream", produces = "application/x-ndjson")
+    public void ordersOrderedV6_stream(HttpServletResponse response) throws IOException {
+        writeNdjson(response, writer -> {
+            OrderFlatAssembler assembler = new OrderFlatAssembler(writer::accept);
+            orderQueryRepository.streamAllByDto_flatOrderById(exportFetchSize, assembler);
+            assembler.finish();
+        });
+    }
+
+    /**
+     * 장바구니 주문 : 주문 1건에 여러 상품
+     */
+    @PostMapping("/api/v1/orders/checkout")
+    public CreateOrderResponse checkout(@RequestBody @Valid CheckoutRequest request) {
+        List<OrderLine> lines = request.getLines().stream()
+                .map(line -> new OrderLine(line.getItemId(), line.getCount()))
+                .collect(toList());
+        return new CreateOrderResponse(
+                optimisticRetryExecutor.execute("checkout", () -> orderService.checkout(request.getMemberId(), lines)));
+    }
+
+    @Data
+    static class CheckoutRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty
+        @Valid
+        private List<CheckoutLineRequest> lines;
+    }
+
+    @Data
+    static class CheckoutLineRequest {
+        @NotNull
+        private Long itemId;
+        @Positive
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long id;
+    }
+
+    /**
+     * 주문 일괄 취소 : 주문일시 [from, to) 범위의 ORDER 상태 주문을 chunk 단위로 취소
+     * ex) 방치된 주문 정리 배치
+     */
+    @PostMapping("/api/v1/orders/bulk-cancel")
+    public BulkCancelResult bulkCancel(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return orderBulkCancelService.cancelOrders(from, to);
+    }
+
+    /**
+     * producer가 넘겨주는 객체를 한 줄에 하나씩 JSON으로 응답 스트림에 바로 쓴다.
+     */
+    private void writeNdjson(HttpServletResponse response, Consumer<Consumer<Object>> producer) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            producer.accept(value -> {
+                try {
+                    generator.writeObject(value);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
 }
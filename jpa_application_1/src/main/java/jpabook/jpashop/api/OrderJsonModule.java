@@ -0,0 +1,194 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import jpabook.jpashop.api.OrderApiController.OrderDto;
+import jpabook.jpashop.api.OrderApiController.OrderItemDto;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 주문 조회 DTO 전용 JSON 직렬화
+ * 리플렉션 기반 BeanSerializer 대신 필드를 순서대로 JsonGenerator에 직접 쓰고, 필드 이름은 미리 인코딩(SerializedString)해 둔다.
+ * 스프링 부트가 Module 빈을 ObjectMapper에 등록하므로 API 응답과 NDJSON 스트리밍 모두 이 직렬화로 응답 출력 스트림에 바로 쓴다.
+ * 출력은 기본 직렬화와 같다. (필드 순서, null 포함, @JsonIgnore orderId 제외, 날짜는 ObjectMapper에 등록된 LocalDateTime 직렬화 사용)
+ * DTO 필드를 바꾸면 여기도 같이 바꿔야 한다. (OrderJsonModuleTest에서 기본 직렬화와 비교)
+ */
+@Component
+public class OrderJsonModule extends SimpleModule {
+
+    private static final SerializedString ORDER_ID = new SerializedString("orderId");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString ORDER_DATE = new SerializedString("orderDate");
+    private static final SerializedString ORDER_STATUS = new SerializedString("orderStatus");
+    private static final SerializedString ADDRESS = new SerializedString("address");
+    private static final SerializedString CITY = new SerializedString("city");
+    private static final SerializedString STREET = new SerializedString("street");
+    private static final SerializedString ZIPCODE = new SerializedString("zipcode");
+    private static final SerializedString ORDER_ITEMS = new SerializedString("orderItems");
+    private static final SerializedString ITEM_NAME = new SerializedString("itemName");
+    private static final SerializedString ORDER_PRICE = new SerializedString("orderPrice");
+    private static final SerializedString COUNT = new SerializedString("count");
+
+    public OrderJsonModule() {
+        super("OrderJsonModule");
+        addSerializer(OrderQueryDto.class, new OrderQueryDtoSerializer());
+        addSerializer(OrderItemQueryDto.class, new OrderItemQueryDtoSerializer());
+        addSerializer(OrderFlatDto.class, new OrderFlatDtoSerializer());
+        addSerializer(OrderDto.class, new OrderDtoSerializer());
+        addSerializer(OrderItemDto.class, new OrderItemDtoSerializer());
+    }
+
+    static class OrderQueryDtoSerializer extends StdSerializer<OrderQueryDto> {
+
+        OrderQueryDtoSerializer() {
+            super(OrderQueryDto.class);
+        }
+
+        @Override
+        public void serialize(OrderQueryDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(dto);
+            writeOrder(gen, provider, dto.getOrderId(), dto.getName(), dto.getOrderDate(), dto.getOrderStatus(), dto.getAddress());
+            gen.writeFieldName(ORDER_ITEMS);
+            List<OrderItemQueryDto> items = dto.getOrderItems();
+            if (items == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(items, items.size());
+                for (OrderItemQueryDto item : items) {
+                    writeItem(gen, item.getItemName(), item.getOrderPrice(), item.getCount());
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static class OrderItemQueryDtoSerializer extends StdSerializer<OrderItemQueryDto> {
+
+        OrderItemQueryDtoSerializer() {
+            super(OrderItemQueryDto.class);
+        }
+
+        @Override
+        public void serialize(OrderItemQueryDto item, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeItem(gen, item.getItemName(), item.getOrderPrice(), item.getCount());
+        }
+    }
+
+    static class OrderFlatDtoSerializer extends StdSerializer<OrderFlatDto> {
+
+        OrderFlatDtoSerializer() {
+            super(OrderFlatDto.class);
+        }
+
+        @Override
+        public void serialize(OrderFlatDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(dto);
+            writeOrder(gen, provider, dto.getOrderId(), dto.getName(), dto.getOrderDate(), dto.getOrderStatus(), dto.getAddress());
+            gen.writeFieldName(ITEM_NAME);
+            gen.writeString(dto.getItemName());
+            gen.writeFieldName(ORDER_PRICE);
+            gen.writeNumber(dto.getOrderPrice());
+            gen.writeFieldName(COUNT);
+            gen.writeNumber(dto.getCount());
+            gen.writeEndObject();
+        }
+    }
+
+    static class OrderDtoSerializer extends StdSerializer<OrderDto> {
+
+        OrderDtoSerializer() {
+            super(OrderDto.class);
+        }
+
+        @Override
+        public void serialize(OrderDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(dto);
+            writeOrder(gen, provider, dto.getOrderId(), dto.getName(), dto.getOrderDate(), dto.getOrderStatus(), dto.getAddress());
+            gen.writeFieldName(ORDER_ITEMS);
+            List<OrderItemDto> items = dto.getOrderItems();
+            if (items == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray(items, items.size());
+                for (OrderItemDto item : items) {
+                    writeItem(gen, item.getItemName(), item.getOrderPrice(), item.getCount());
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static class OrderItemDtoSerializer extends StdSerializer<OrderItemDto> {
+
+        OrderItemDtoSerializer() {
+            super(OrderItemDto.class);
+        }
+
+        @Override
+        public void serialize(OrderItemDto item, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeItem(gen, item.getItemName(), item.getOrderPrice(), item.getCount());
+        }
+    }
+
+    /**
+     * 주문 DTO 공통 필드 (orderId, name, orderDate, orderStatus, address)
+     */
+    private static void writeOrder(JsonGenerator gen, SerializerProvider provider, Long orderId, String name,
+                                   LocalDateTime orderDate, OrderStatus orderStatus, Address address) throws IOException {
+        gen.writeFieldName(ORDER_ID);
+        if (orderId == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(orderId);
+        }
+        gen.writeFieldName(NAME);
+        gen.writeString(name);
+        gen.writeFieldName(ORDER_DATE);
+        if (orderDate == null) {
+            gen.writeNull();
+        } else {
+            // 날짜 형식은 ObjectMapper 설정(spring.jackson.*)을 따르도록 등록된 직렬화에 맡긴다. (타입별로 캐시되어 있음)
+            provider.findValueSerializer(LocalDateTime.class).serialize(orderDate, gen, provider);
+        }
+        gen.writeFieldName(ORDER_STATUS);
+        gen.writeString(orderStatus == null ? null : orderStatus.name());
+        gen.writeFieldName(ADDRESS);
+        if (address == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject(address);
+            gen.writeFieldName(CITY);
+            gen.writeString(address.getCity());
+            gen.writeFieldName(STREET);
+            gen.writeString(address.getStreet());
+            gen.writeFieldName(ZIPCODE);
+            gen.writeString(address.getZipcode());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeItem(JsonGenerator gen, String itemName, int orderPrice, int count) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(ITEM_NAME);
+        gen.writeString(itemName);
+        gen.writeFieldName(ORDER_PRICE);
+        gen.writeNumber(orderPrice);
+        gen.writeFieldName(COUNT);
+        gen.writeNumber(count);
+        gen.writeEndObject();
+    }
+}
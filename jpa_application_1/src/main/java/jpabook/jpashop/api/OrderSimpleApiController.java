@@ -7,6 +7,7 @@ import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSummaryRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -28,6 +29,7 @@ public class OrderSimpleApiController {
 
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
 
     /**
      * 간단한 주문 조회 V1 : 엔티티를 직접 노출
@@ -97,4 +99,14 @@ public class OrderSimpleApiController {
     public List<OrderSimpleQueryDto> ordersV4() {
         return orderSimpleQueryRepository.findOrderDtos();
     }
+
+    /**
+     * 간단한 주문 조회 V5 : 주문 요약 테이블(읽기 모델)에서 조회
+     * 주문/취소 시점에 미리 만들어둔 order_summary 테이블 하나만 조회하므로 조인이 없다.
+     * 쓰기보다 읽기가 훨씬 많은 화면에 적합
+     */
+    @GetMapping("/api/v5/simple-orders")
+    public List<OrderSimpleQueryDto> ordersV5() {
+        return orderSummaryRepository.findOrderDtos();
+    }
 }
@@ -0,0 +1,120 @@
+package jpabook.jpashop.api;
+
+import jakarta.persistence.EntityManagerFactory;
+import jpabook.jpashop.monitoring.SqlLatencyListener;
+import jpabook.jpashop.monitoring.SqlLatencyListener.SlowQuery;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 영속성 계층 통계
+ * - 세션 통계 : 엔티티 load/fetch, flush, 쿼리 실행 수와 가장 느린 쿼리
+ * - 쿼리별 통계 : 총 실행 시간이 큰 순서로 top 개
+ * - 2차 캐시 region별 hit ratio
+ * - 샘플링된 느린 쿼리 (바인딩 값 포함)
+ * 같은 값이 actuator 메트릭(hibernate.*, jpashop.sql)으로도 나가므로 이 API는 사람이 한눈에 보기 위한 용도이다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class PersistenceStatsApiController {
+
+    private final EntityManagerFactory emf;
+    private final SqlLatencyListener sqlLatencyListener;
+
+    @GetMapping("/api/persistence/stats")
+    public PersistenceStatsDto persistenceStats(@RequestParam(value = "top", defaultValue = "20") int top) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        List<QueryStatsDto> queries = Arrays.stream(statistics.getQueries())
+                .map(query -> new QueryStatsDto(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong(QueryStatsDto::getTotalTimeMillis).reversed())
+                .limit(top)
+                .collect(toList());
+
+        List<CacheHitRatioDto> caches = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(region -> new CacheHitRatioDto(region, statistics.getDomainDataRegionStatistics(region)))
+                .collect(toList());
+
+        return new PersistenceStatsDto(
+                statistics.isStatisticsEnabled(),
+                statistics.getEntityLoadCount(),
+                statistics.getEntityFetchCount(),
+                statistics.getCollectionLoadCount(),
+                statistics.getCollectionFetchCount(),
+                statistics.getFlushCount(),
+                statistics.getPrepareStatementCount(),
+                statistics.getQueryExecutionCount(),
+                statistics.getQueryExecutionMaxTime(),
+                statistics.getQueryExecutionMaxTimeQueryString(),
+                queries,
+                caches,
+                sqlLatencyListener.findSlowQueries());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class PersistenceStatsDto {
+        private boolean statisticsEnabled; // hibernate.generate_statistics
+        private long entityLoadCount;
+        private long entityFetchCount;
+        private long collectionLoadCount;
+        private long collectionFetchCount;
+        private long flushCount;
+        private long prepareStatementCount;
+        private long queryExecutionCount;
+        private long queryExecutionMaxTimeMillis;
+        private String queryExecutionMaxTimeQuery;
+        private List<QueryStatsDto> queries;
+        private List<CacheHitRatioDto> caches;
+        private List<SlowQuery> slowQueries;
+    }
+
+    @Data
+    static class QueryStatsDto {
+        private String query;
+        private long executionCount;
+        private long executionAvgTimeMillis;
+        private long executionMaxTimeMillis;
+        private long totalTimeMillis;
+        private long rowCount;
+
+        QueryStatsDto(String query, QueryStatistics stats) {
+            this.query = query;
+            this.executionCount = stats.getExecutionCount();
+            this.executionAvgTimeMillis = stats.getExecutionAvgTime();
+            this.executionMaxTimeMillis = stats.getExecutionMaxTime();
+            this.totalTimeMillis = stats.getExecutionTotalTime();
+            this.rowCount = stats.getExecutionRowCount();
+        }
+    }
+
+    @Data
+    static class CacheHitRatioDto {
+        private String region;
+        private long hitCount;
+        private long missCount;
+        private double hitRatio;
+
+        CacheHitRatioDto(String region, CacheRegionStatistics stats) {
+            this.region = region;
+            this.hitCount = stats.getHitCount();
+            this.missCount = stats.getMissCount();
+            long total = hitCount + missCount;
+            this.hitRatio = total == 0 ? 0 : (double) hitCount / total;
+        }
+    }
+}
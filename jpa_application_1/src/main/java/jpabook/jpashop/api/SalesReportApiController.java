@@ -0,0 +1,68 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.sales.DailySalesDto;
+import jpabook.jpashop.repository.sales.ItemSalesDto;
+import jpabook.jpashop.repository.sales.MemberSalesDto;
+import jpabook.jpashop.service.SalesRollupService;
+import jpabook.jpashop.service.SalesRollupService.BackfillResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 매출 리포트 (from ~ to, 주문일 기준)
+ * order_item을 집계하지 않고 일별 집계 테이블만 읽는다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class SalesReportApiController {
+
+    private final SalesRollupService salesRollupService;
+
+    @GetMapping("/api/v1/reports/sales/daily")
+    public Result<List<DailySalesDto>> dailySales(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return new Result<>(salesRollupService.findDailySales(from, to));
+    }
+
+    @GetMapping("/api/v1/reports/sales/items")
+    public Result<List<ItemSalesDto>> itemSales(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return new Result<>(salesRollupService.findItemSales(from, to, limit));
+    }
+
+    @GetMapping("/api/v1/reports/sales/members")
+    public Result<List<MemberSalesDto>> memberSales(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return new Result<>(salesRollupService.findMemberSales(from, to, limit));
+    }
+
+    /**
+     * 집계 다시 만들기 (from, to 생략 시 전체 주문 기간)
+     */
+    @PostMapping("/api/v1/reports/sales/backfill")
+    public BackfillResult backfill(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesRollupService.backfill(from, to);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+    }
+}
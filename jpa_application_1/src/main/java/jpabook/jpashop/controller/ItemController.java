@@ -1,21 +1,30 @@
 package jpabook.jpashop.controller;
 
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.form.BookForm;
 import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.OptimisticRetryExecutor;
+import jpabook.jpashop.service.StockService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 
+import java.util.List;
+
 @Controller
 @RequiredArgsConstructor
 public class ItemController {
 
     private final ItemService itemService;
+    private final StockService stockService;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
 
     @GetMapping("/items/new")
     public String createForm(Model model) {
@@ -32,19 +41,16 @@ public class ItemController {
 
     @GetMapping("/items")
     public String list(Model model) {
-        model.addAttribute("items", itemService.findItems());
+        List<Item> items = itemService.findItems();
+        model.addAttribute("items", items);
+        model.addAttribute("stocks", stockService.availableStocks(items)); // stripe 재고 포함
         return "items/itemList";
     }
 
     @GetMapping("/items/{itemId}/edit")
     public String updateItemForm(@PathVariable("itemId") Long itemId, Model model) {
-        Book item = (Book) itemService.findOne(itemId);
         BookForm form = new BookForm();
-        form.setId(item.getId());
-        form.setName(item.getName());
-        form.setPrice(item.getPrice());
-        form.setAuthor(item.getAuthor());
-        form.setIsbn(item.getIsbn());
+        fillForm(form, itemId);
 
         model.addAttribute("form", form);
         return "items/updateItemForm";
@@ -57,9 +63,34 @@ public class ItemController {
         return "redirect:/items";
     }*/
 
+    /**
+     * 수정 화면을 연 뒤에 다른 곳에서 상품이 바뀌었거나 재고가 모자라면
+     * 오류 메시지와 함께 지금 값(version 포함)으로 수정 화면을 다시 보여준다.
+     */
     @PostMapping("/items/{itemId}/edit")
-    public String updateItem(@ModelAttribute("form") BookForm form) {
-        itemService.updateItem(form.getId(), form.getName(), form.getPrice(), form.getStockQuantity());
+    public String updateItem(@ModelAttribute("form") BookForm form, BindingResult result) {
+        try {
+            optimisticRetryExecutor.run("item.update", () -> itemService.updateItem(
+                    form.getId(), form.getName(), form.getPrice(), form.getStockQuantity(), form.getOriginalStockQuantity(), form.getVersion()));
+        } catch (IllegalStateException | NotEnoughStockException e) {
+            fillForm(form, form.getId());
+            result.reject("updateFailed", e instanceof NotEnoughStockException
+                    ? "재고가 부족합니다. 다시 확인 후 수정해주세요." : e.getMessage());
+            return "items/updateItemForm";
+        }
         return "redirect:/items";
     }
+
+    private void fillForm(BookForm form, Long itemId) {
+        Book item = (Book) itemService.findOne(itemId);
+        form.setId(item.getId());
+        form.setName(item.getName());
+        form.setPrice(item.getPrice());
+        form.setAuthor(item.getAuthor());
+        form.setIsbn(item.getIsbn());
+        int stock = stockService.availableStock(itemId); // stripe 재고 포함
+        form.setStockQuantity(stock);
+        form.setOriginalStockQuantity(stock);
+        form.setVersion(item.getVersion());
+    }
 }
@@ -1,11 +1,12 @@
 package jpabook.jpashop.controller;
 
 import jpabook.jpashop.domain.Member;
-import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.service.ItemService;
 import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OptimisticRetryExecutor;
+import jpabook.jpashop.service.OrderListPage;
 import jpabook.jpashop.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -21,6 +22,9 @@ public class OrderController {
     private final OrderService orderService;
     private final MemberService memberService;
     private final ItemService itemService;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     @GetMapping("/order")
     public String createForm(Model model) {
@@ -39,20 +43,28 @@ public class OrderController {
             @RequestParam("itemId") Long itemId,
             @RequestParam("count") int count
     ) {
-        orderService.order(memberId, itemId, count);
+        optimisticRetryExecutor.execute("order", () -> orderService.orderWithReservation(memberId, itemId, count));
         return "redirect:/order";
     }
 
+    /**
+     * 주문 목록 : 엔티티 대신 목록용 DTO를 한 페이지씩 조회 (OSIV 지연 로딩 없음)
+     */
     @GetMapping("/orders")
-    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model) {
-        List<Order> orders = orderService.findOrders(orderSearch);
-        model.addAttribute("orders", orders);
+    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch,
+                            @RequestParam(value = "afterId", required = false) Long afterId,
+                            @RequestParam(value = "afterTotalPrice", required = false) Integer afterTotalPrice,
+                            @RequestParam(value = "size", defaultValue = "20") int size,
+                            Model model) {
+        OrderListPage page = orderService.findOrderListPage(orderSearch, afterId, afterTotalPrice, Math.min(size, MAX_PAGE_SIZE));
+        model.addAttribute("page", page);
+        model.addAttribute("orders", page.getOrders());
         return "order/orderList";
     }
 
     @PostMapping("/orders/{orderId}/cancel")
     public String cancelOrder(@PathVariable("orderId") Long orderId) {
-        orderService.cancelOrder(orderId);
+        optimisticRetryExecutor.run("order.cancel", () -> orderService.cancelReservedOrder(orderId));
         return "redirect:/orders";
     }
 }
@@ -0,0 +1,220 @@
+package jpabook.jpashop.datagen;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * 부하 테스트용 대용량 데이터 생성기 (H2 기준)
+ * em.persist로 한 건씩 넣지 않고 JDBC batch insert로 member, item, orders, delivery, order_item, order_summary를 채운다.
+ * - 회원/상품은 Zipf 분포로 뽑아서 일부 회원과 인기 상품에 주문이 몰리도록 한다.
+ * - 같은 profile, seed면 항상 같은 데이터가 만들어진다.
+ * - id는 시퀀스에서 한 구간을 통째로 예약해서 사용하고, 끝나면 시퀀스를 그 뒤로 옮겨서 JPA가 만드는 id와 겹치지 않게 한다.
+ * p6spy 로그가 켜져 있으면 batch마다 로그가 남아서 매우 느려지므로 끄고 실행한다. (decorator.datasource.p6spy.enable-logging=false)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkDataGenerator {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COMMIT_EVERY = 50_000;
+    private static final int SEQUENCE_MARGIN = 100; // 가장 큰 allocationSize 이상
+    private static final String[] CITIES = {"서울", "수원", "부산", "대구", "인천", "광주", "대전"};
+
+    private final DataSource dataSource;
+
+    public DataGenResult generate(DataGenProfile profile, long seed) {
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+
+            long memberBase = reserveIds(conn, "member_seq", profile.getMembers());
+            long itemBase = reserveIds(conn, "item_seq", profile.getItems());
+            long orderBase = reserveIds(conn, "orders_seq", profile.getOrders());
+            long deliveryBase = reserveIds(conn, "delivery_seq", profile.getOrders());
+            long orderItemBase = reserveIds(conn, "order_item_seq", (long) profile.getOrders() * profile.getMaxItemsPerOrder());
+
+            insertMembers(conn, profile, memberBase);
+            insertItems(conn, profile, itemBase, random);
+            long orderItems = insertOrders(conn, profile, seed, random, memberBase, itemBase, orderBase, deliveryBase, orderItemBase);
+            conn.commit();
+
+            DataGenResult result = new DataGenResult(profile.getMembers(), profile.getItems(), profile.getOrders(), orderItems,
+                    System.currentTimeMillis() - start);
+            log.info("datagen profile={} seed={} result={}", profile, seed, result);
+            return result;
+        } catch (SQLException e) {
+            throw new IllegalStateException("대용량 데이터 생성 실패", e);
+        }
+    }
+
+    private void insertMembers(Connection conn, DataGenProfile profile, long memberBase) throws SQLException {
+        try (BatchInserter members = new BatchInserter(conn,
+                "insert into member (member_id, username, city, street, zipcode, version) values (?, ?, ?, ?, ?, 0)")) {
+            for (int i = 0; i < profile.getMembers(); i++) {
+                long id = memberBase + i;
+                members.add(id, "user" + id, CITIES[i % CITIES.length], "길거리" + (i % 1000), String.format("%05d", i % 100_000));
+                flushEvery(conn, i + 1, members);
+            }
+        }
+    }
+
+    private void insertItems(Connection conn, DataGenProfile profile, long itemBase, Random random) throws SQLException {
+        try (BatchInserter items = new BatchInserter(conn,
+                "insert into item (dtype, item_id, name, price, stock_quantity, author, isbn, version) values ('B', ?, ?, ?, ?, ?, ?, 0)")) {
+            for (int i = 0; i < profile.getItems(); i++) {
+                long id = itemBase + i;
+                items.add(id, "BOOK" + id, (random.nextInt(50) + 1) * 1000, 1_000_000, "author" + (i % 500), String.valueOf(id));
+                flushEvery(conn, i + 1, items);
+            }
+        }
+    }
+
+    private long insertOrders(Connection conn, DataGenProfile profile, long seed, Random random,
+                              long memberBase, long itemBase, long orderBase, long deliveryBase, long orderItemBase) throws SQLException {
+        ZipfSampler memberSampler = new ZipfSampler(profile.getMembers(), 0.8, new Random(seed + 1));
+        ZipfSampler itemSampler = new ZipfSampler(profile.getItems(), 1.1, new Random(seed + 2));
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 0, 0).plusYears(1); // seed가 같으면 날짜도 같게 고정
+
+        long orderItemId = orderItemBase;
+        try (BatchInserter deliveries = new BatchInserter(conn,
+                "insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)");
+             BatchInserter orders = new BatchInserter(conn,
+                     "insert into orders (order_id, member_id, delivery_id, order_date, status, total_price, version) values (?, ?, ?, ?, ?, ?, 0)");
+             BatchInserter orderItems = new BatchInserter(conn,
+                     "insert into order_item (order_item_id, item_id, order_id, order_price, count) values (?, ?, ?, ?, ?)");
+             BatchInserter summaries = new BatchInserter(conn,
+                     "insert into order_summary (order_id, member_id, username, order_date, status, city, street, zipcode) values (?, ?, ?, ?, ?, ?, ?, ?)")) {
+
+            for (int i = 0; i < profile.getOrders(); i++) {
+                long orderId = orderBase + i;
+                long deliveryId = deliveryBase + i;
+                int memberIdx = memberSampler.next();
+                long memberId = memberBase + memberIdx;
+                String city = CITIES[memberIdx % CITIES.length];
+                String street = "길거리" + (memberIdx % 1000);
+                String zipcode = String.format("%05d", memberIdx % 100_000);
+                Timestamp orderDate = Timestamp.valueOf(now.minusSeconds(random.nextInt(365 * 24 * 3600)));
+                String status = random.nextInt(100) < 5 ? "CANCEL" : "ORDER";
+                String deliveryStatus = random.nextInt(100) < 30 ? "COMP" : "READY";
+
+                int totalPrice = 0;
+                int lines = random.nextInt(profile.getMaxItemsPerOrder()) + 1;
+                for (int line = 0; line < lines; line++) {
+                    long itemId = itemBase + itemSampler.next();
+                    int orderPrice = (random.nextInt(50) + 1) * 1000;
+                    int count = random.nextInt(3) + 1;
+                    orderItems.add(orderItemId++, itemId, orderId, orderPrice, count);
+                    totalPrice += orderPrice * count;
+                }
+
+                deliveries.add(deliveryId, city, street, zipcode, deliveryStatus);
+                orders.add(orderId, memberId, deliveryId, orderDate, status, totalPrice);
+                summaries.add(orderId, memberId, "user" + memberId, orderDate, status, city, street, zipcode);
+                // FK 순서대로 (delivery -> orders -> order_item) 실행
+                flushEvery(conn, i + 1, deliveries, orders, orderItems, summaries);
+            }
+            // 남은 batch도 FK 순서대로 (try-with-resources는 선언의 역순으로 close)
+            deliveries.flush();
+            orders.flush();
+            orderItems.flush();
+            summaries.flush();
+        }
+        return orderItemId - orderItemBase;
+    }
+
+    /**
+     * 시퀀스에서 count 개의 id 구간을 예약한다.
+     * 지금 시퀀스 값부터 count 개를 사용하고, 시퀀스는 그 뒤(+ allocationSize 여유)로 옮긴다.
+     */
+    private long reserveIds(Connection conn, String sequence, long count) throws SQLException {
+        long base;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("select next value for " + sequence)) {
+            rs.next();
+            base = rs.getLong(1) + SEQUENCE_MARGIN;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("alter sequence " + sequence + " restart with " + (base + count + SEQUENCE_MARGIN));
+        }
+        return base;
+    }
+
+    /**
+     * BATCH_SIZE 마다 executeBatch, COMMIT_EVERY 마다 commit
+     */
+    private static void flushEvery(Connection conn, int count, BatchInserter... inserters) throws SQLException {
+        if (count % BATCH_SIZE != 0) {
+            return;
+        }
+        for (BatchInserter inserter : inserters) {
+            inserter.flush();
+        }
+        if (count % COMMIT_EVERY == 0) {
+            conn.commit();
+        }
+    }
+
+    /**
+     * addBatch만 하고, 실행은 flushEvery에서 테이블 간 FK 순서를 지켜서 한다.
+     */
+    private static class BatchInserter implements AutoCloseable {
+        private final PreparedStatement ps;
+        private int pending;
+
+        BatchInserter(Connection conn, String sql) throws SQLException {
+            this.ps = conn.prepareStatement(sql);
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                ps.setObject(i + 1, values[i]);
+            }
+            ps.addBatch();
+            pending++;
+        }
+
+        void flush() throws SQLException {
+            if (pending > 0) {
+                ps.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            ps.close();
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class DataGenResult {
+        private final long members;
+        private final long items;
+        private final long orders;
+        private final long orderItems;
+        private final long elapsedMillis;
+
+        @Override
+        public String toString() {
+            return "members=" + members + ", items=" + items + ", orders=" + orders
+                    + ", orderItems=" + orderItems + ", elapsed=" + elapsedMillis + "ms";
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package jpabook.jpashop.datagen;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 대용량 테스트 데이터 크기 프로파일
+ * 주문 상품 수는 주문당 1~maxItemsPerOrder 개라 대략 orders * (1 + maxItemsPerOrder) / 2
+ */
+@Getter
+@RequiredArgsConstructor
+public enum DataGenProfile {
+    TINY(100, 20, 1_000, 5),
+    SMALL(1_000, 100, 10_000, 5),
+    MEDIUM(100_000, 1_000, 1_000_000, 5),
+    LARGE(1_000_000, 10_000, 3_000_000, 5),
+    XLARGE(5_000_000, 50_000, 10_000_000, 5);
+
+    private final int members;
+    private final int items;
+    private final int orders;
+    private final int maxItemsPerOrder;
+}
@@ -0,0 +1,34 @@
+package jpabook.jpashop.datagen;
+
+import jpabook.jpashop.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * jpashop.datagen.profile 이 설정되어 있으면 애플리케이션 시작 시 대용량 데이터를 생성한다.
+ * ex) --jpashop.datagen.profile=MEDIUM --jpashop.datagen.seed=42 --decorator.datasource.p6spy.enable-logging=false
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.datagen.profile")
+@RequiredArgsConstructor
+public class DataGenRunner implements ApplicationRunner {
+
+    private final BulkDataGenerator bulkDataGenerator;
+    private final SalesRollupService salesRollupService;
+
+    @Value("${jpashop.datagen.profile}")
+    private DataGenProfile profile;
+
+    @Value("${jpashop.datagen.seed:42}")
+    private long seed;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        bulkDataGenerator.generate(profile, seed);
+        salesRollupService.backfill(null, null); // JDBC로 직접 넣은 주문은 매출 집계에 반영되지 않으므로 다시 만든다.
+    }
+}
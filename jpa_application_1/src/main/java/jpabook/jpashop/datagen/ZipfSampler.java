@@ -0,0 +1,34 @@
+package jpabook.jpashop.datagen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf 분포 샘플러: 0 ~ n-1 중에서 앞쪽 번호일수록 훨씬 자주 뽑힌다. (인기 상품, 헤비 유저)
+ * 누적 확률 배열을 미리 만들고 이진 탐색으로 뽑는다.
+ */
+public class ZipfSampler {
+
+    private final double[] cdf;
+    private final Random random;
+
+    public ZipfSampler(int n, double exponent, Random random) {
+        this.cdf = new double[n];
+        this.random = random;
+
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    public int next() {
+        int idx = Arrays.binarySearch(cdf, random.nextDouble());
+        int rank = idx >= 0 ? idx : -idx - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+}
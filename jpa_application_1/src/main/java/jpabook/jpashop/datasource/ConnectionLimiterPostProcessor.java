@@ -0,0 +1,70 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 가상 스레드 모드(spring.threads.virtual.enabled=true, Java 21 이상)에서 DataSource 앞에 ConnectionLimitingDataSource를 둔다.
+ * 동시에 가질 수 있는 커넥션 수(max-concurrent)를 따로 정하지 않으면 Hikari 풀 크기를 사용한다.
+ * MeterRegistry는 BeanPostProcessor가 먼저 만들어지면서 같이 초기화되지 않도록 감쌀 때 꺼낸다.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "jpashop.jdbc-limiter.enabled", matchIfMissing = true)
+public class ConnectionLimiterPostProcessor implements BeanPostProcessor {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long acquireTimeoutMs;
+
+    public ConnectionLimiterPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                          @Value("${jpashop.jdbc-limiter.max-concurrent:0}") int maxConcurrent,
+                                          @Value("${jpashop.jdbc-limiter.max-waiting:1000}") int maxWaiting,
+                                          @Value("${jpashop.jdbc-limiter.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        // 애플리케이션이 사용하는 DataSource만 감싼다. (ReplicaRoutingConfig의 primary/replica 풀은 그 안쪽에 있다)
+        if (!DATA_SOURCE_BEAN.equals(beanName)
+                || !(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+            return bean;
+        }
+        int permits = maxConcurrent > 0 ? maxConcurrent : poolSize(dataSource);
+        log.info("JDBC limiter on {} permits={} maxWaiting={}", beanName, permits, maxWaiting);
+        return new ConnectionLimitingDataSource(dataSource, permits, maxWaiting, acquireTimeoutMs, meterRegistry.getObject());
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                int size = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                return size > 0 ? size : DEFAULT_POOL_SIZE; // 풀이 시작되기 전에는 설정하지 않은 값이 -1
+            }
+        } catch (SQLException e) {
+            log.warn("cannot unwrap HikariDataSource: {}", e.getMessage());
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
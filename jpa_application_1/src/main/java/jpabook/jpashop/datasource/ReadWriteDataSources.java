@@ -0,0 +1,154 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * primary 1개 + replica 여러 개의 커넥션 풀과 replica 선택 규칙
+ * - ROUND_ROBIN : 차례대로
+ * - LEAST_BUSY : 사용 중인 커넥션이 가장 적은 replica
+ * lag-query가 설정되어 있으면 replica마다 복제 지연(ms)을 주기적으로 확인해서 max-lag-ms를 넘거나 확인에 실패한 replica는 건너뛴다.
+ * 쓸 수 있는 replica가 없으면 null을 반환하고, 호출한 쪽에서 primary를 사용한다.
+ */
+@Slf4j
+public class ReadWriteDataSources implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    public enum Selection {ROUND_ROBIN, LEAST_BUSY}
+
+    @Getter
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final long lagCheckIntervalMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteDataSources(HikariDataSource primary, List<HikariDataSource> replicas, Selection selection,
+                                String lagQuery, long maxLagMs, long lagCheckIntervalMs) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.selection = selection;
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.lagCheckIntervalMs = lagCheckIntervalMs;
+    }
+
+    /**
+     * AbstractRoutingDataSource의 targetDataSources (key: 풀 이름)
+     */
+    public Map<Object, Object> targets() {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.name, replica.dataSource));
+        return targets;
+    }
+
+    /**
+     * @return 사용할 replica 풀 이름, 쓸 수 있는 replica가 없으면 null
+     */
+    public String selectReplica() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        return switch (selection) {
+            case ROUND_ROBIN -> roundRobin();
+            case LEAST_BUSY -> leastBusy();
+        };
+    }
+
+    private String roundRobin() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (isUpToDate(replica)) {
+                return replica.name;
+            }
+        }
+        return null;
+    }
+
+    private String leastBusy() {
+        return replicas.stream()
+                .filter(this::isUpToDate)
+                .min(Comparator.comparingInt(Replica::activeConnections))
+                .map(replica -> replica.name)
+                .orElse(null);
+    }
+
+    /**
+     * 마지막 확인 후 lag-check-interval-ms가 지났으면 한 스레드만 다시 확인하고, 나머지는 이전 결과를 사용한다.
+     */
+    private boolean isUpToDate(Replica replica) {
+        if (lagQuery.isBlank()) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - replica.checkedAt >= lagCheckIntervalMs && replica.checking.compareAndSet(false, true)) {
+            try {
+                replica.lagMs = queryLag(replica);
+            } catch (SQLException e) {
+                log.warn("replica lag check failed. replica={} {}", replica.name, e.getMessage());
+                replica.lagMs = Long.MAX_VALUE;
+            } finally {
+                replica.checkedAt = now;
+                replica.checking.set(false);
+            }
+        }
+        return replica.lagMs <= maxLagMs;
+    }
+
+    /**
+     * lag-query의 첫 번째 컬럼 (ms), null이면 지연을 알 수 없으므로 사용하지 않는다.
+     */
+    private long queryLag(Replica replica) throws SQLException {
+        try (Connection conn = replica.dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                return Long.MAX_VALUE;
+            }
+            long lag = rs.getLong(1);
+            return rs.wasNull() ? Long.MAX_VALUE : lag;
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private static class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final AtomicBoolean checking = new AtomicBoolean();
+        private volatile long checkedAt;
+        private volatile long lagMs;
+
+        Replica(HikariDataSource dataSource) {
+            this.name = dataSource.getPoolName();
+            this.dataSource = dataSource;
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 읽기 전용 트랜잭션이면 replica, 그 외(쓰기 트랜잭션, 트랜잭션 밖)는 primary 커넥션을 사용한다.
+ * readOnly 여부는 트랜잭션이 시작된 뒤에 동기화되므로 LazyConnectionDataSourceProxy로 감싸서
+ * 첫 SQL을 실행할 때 커넥션을 고르게 해야 한다. (ReplicaRoutingConfig)
+ * 쓰기 트랜잭션 안에서 호출한 readOnly 메서드는 바깥 트랜잭션에 참여하므로 primary를 그대로 사용한다.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReadWriteDataSources dataSources;
+    private final MeterRegistry meterRegistry;
+
+    public ReadWriteRoutingDataSource(ReadWriteDataSources dataSources, MeterRegistry meterRegistry) {
+        this.dataSources = dataSources;
+        this.meterRegistry = meterRegistry;
+        setTargetDataSources(dataSources.targets());
+        setDefaultTargetDataSource(dataSources.getPrimary());
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return route(ReadWriteDataSources.PRIMARY, false);
+        }
+        String replica = dataSources.selectReplica();
+        return replica == null
+                ? route(ReadWriteDataSources.PRIMARY, true) // 모든 replica가 지연/장애 -> primary
+                : route(replica, true);
+    }
+
+    private String route(String target, boolean readOnly) {
+        meterRegistry.counter("jpashop.datasource.route", "target", target, "read-only", String.valueOf(readOnly))
+                .increment();
+        return target;
+    }
+}
@@ -0,0 +1,91 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * jpashop.datasource.replica.urls 가 설정되어 있으면 읽기 전용 트랜잭션을 replica로 보낸다.
+ * - primary : spring.datasource.* 와 spring.datasource.hikari.* (스프링 부트 기본 DataSource와 같은 설정)
+ * - replica : url만 다르고 계정/드라이버는 primary와 같다고 가정하며, 풀 설정은 jpashop.datasource.replica.hikari.*
+ * 커넥션은 트랜잭션마다 다시 고른다. OSIV(open-in-view)로 요청 내내 같은 EntityManager를 쓰더라도
+ * 트랜잭션이 끝나면 커넥션을 반납하도록(DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION) 해서
+ * 읽기 전용 트랜잭션 다음의 쓰기 트랜잭션이 replica 커넥션을 이어서 쓰지 않게 한다.
+ * 설정하지 않으면 스프링 부트 기본 DataSource 하나만 사용한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.datasource.replica.urls")
+public class ReplicaRoutingConfig {
+
+    private static final String REPLICA_HIKARI_PREFIX = "jpashop.datasource.replica.hikari";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName(ReadWriteDataSources.PRIMARY);
+        primary.setMetricRegistry(meterRegistry);
+        return primary;
+    }
+
+    @Bean
+    public ReadWriteDataSources readWriteDataSources(
+            HikariDataSource primaryDataSource, DataSourceProperties properties, MeterRegistry meterRegistry, Environment environment,
+            @Value("${jpashop.datasource.replica.urls}") List<String> replicaUrls,
+            @Value("${jpashop.datasource.replica.selection:ROUND_ROBIN}") ReadWriteDataSources.Selection selection,
+            @Value("${jpashop.datasource.replica.lag-query:}") String lagQuery,
+            @Value("${jpashop.datasource.replica.max-lag-ms:1000}") long maxLagMs,
+            @Value("${jpashop.datasource.replica.lag-check-interval-ms:1000}") long lagCheckIntervalMs) {
+        Binder binder = Binder.get(environment);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            binder.bind(REPLICA_HIKARI_PREFIX, Bindable.ofInstance(replica)); // 풀 크기, 타임아웃 등 (계정도 덮어쓸 수 있다)
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(replicaUrls.get(i));
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReadWriteDataSources(primaryDataSource, replicas, selection, lagQuery, maxLagMs, lagCheckIntervalMs);
+    }
+
+    /**
+     * 트랜잭션 안에서 첫 SQL을 실행할 때 읽기 전용 트랜잭션이면 replica, 그 외에는 primary 커넥션을 사용한다.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteDataSources readWriteDataSources, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(readWriteDataSources, meterRegistry));
+    }
+
+    /**
+     * 기본값(DELAYED_ACQUISITION_AND_HOLD)은 EntityManager가 닫힐 때까지 커넥션을 잡고 있어서
+     * OSIV에서는 요청의 첫 트랜잭션이 고른 커넥션을 요청이 끝날 때까지 사용한다.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -3,13 +3,19 @@ package jpabook.jpashop.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_member_username", columnNames = "username")) // 중복 가입 최종 방어
+@Cacheable // 주문할 때마다 조회되지만 변경은 드물어서 2차 캐시 사용
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 public class Member {
@@ -25,6 +31,10 @@ public class Member {
     @Embedded
     private Address address;
 
+    @Version // 변경될 때마다 증가 (조건부 GET의 변경 감지에 사용)
+    @Setter(AccessLevel.NONE)
+    private long version;
+
     @JsonIgnore
     @OneToMany(mappedBy = "member") // Order 테이블에 있는 member에 매핑되었다.
     private List<Order> orders = new ArrayList<>();
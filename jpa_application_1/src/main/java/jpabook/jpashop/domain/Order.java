@@ -15,14 +15,19 @@ import java.util.List;
  * ORDER 테이블에서 MEMBER와 DELIVERY의 FK를 가지고 있어서 연관관계의 주인이 된다.
  **/
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, order_id"), // 키셋 페이징용 인덱스
+        @Index(name = "idx_orders_member_id", columnList = "member_id"), // 회원 ID로 주문 검색
+        @Index(name = "idx_orders_total_price", columnList = "total_price") // 주문 금액으로 검색/정렬
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED) // protected 생성자를 생성하는 것과 동일
 public class Order {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq_generator")
+    @SequenceGenerator(name = "orders_seq_generator", sequenceName = "orders_seq", allocationSize = 100) // pooled 옵티마이저: 시퀀스 1번 호출로 id 100개 확보
     @Column(name = "order_id")
     private Long id;
 
@@ -38,11 +43,25 @@ public class Order {
     @JoinColumn(name = "delivery_id")
     private Delivery delivery;
 
+    @Column(name = "order_date")
     private LocalDateTime orderDate;
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    /**
+     * 주문 금액 (주문상품 금액의 합)
+     * 목록/리포트에서 금액을 보여주거나 금액으로 검색/정렬할 때 orderItems를 초기화하지 않도록 주문 테이블에 함께 저장한다.
+     * addOrderItem에서만 변경한다. 취소된 주문도 금액은 그대로 두고 상태로 구분한다.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "total_price")
+    private int totalPrice;
+
+    @Version // 변경될 때마다 증가 (조건부 GET의 변경 감지에 사용, 네이티브 update도 함께 증가시켜야 한다)
+    @Setter(AccessLevel.NONE)
+    private long version;
+
 
     //==연관관계 메서드==//
     public void setMember(Member member) {
@@ -53,6 +72,7 @@ public class Order {
     public void addOrderItem(OrderItem orderItem) {
         this.orderItems.add(orderItem);
         orderItem.setOrder(this);
+        this.totalPrice += orderItem.getTotalPrice();
     }
 
     public void setDelivery(Delivery delivery) {
@@ -75,30 +95,37 @@ public class Order {
 
     //==비즈니스 로직==//
     /**
-     * 주문 취소
+     * 주문 취소 (재고 원복)
+     * 재고는 엔티티 UPDATE에 포함되지 않으므로 저장된 주문은 OrderService.cancelOrder로 취소한다.
      */
     public void cancel() {
+        markCanceled();
+        for (OrderItem orderItem : orderItems) {
+            orderItem.cancel();
+        }
+    }
+
+    /**
+     * 재고는 원복하지 않고 주문 상태만 취소로 변경
+     * StockService로 재고를 예약한 주문은 재고도 StockService.release로 돌려줘야 한다.
+     */
+    public void markCanceled() {
+        if (status == OrderStatus.CANCEL) {
+            throw new IllegalStateException("이미 취소된 주문입니다."); // 재고 원복과 매출 차감이 두 번 되지 않도록
+        }
         if (delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("이미 배송완료된 상품은 취소가 불가능합니다.");
         }
 
         this.setStatus(OrderStatus.CANCEL);
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
-        }
     }
 
     //==조회 로직==//
     /**
      * 전체 주문 가격 조회
+     * orderItems를 순회하지 않고 저장된 주문 금액을 돌려준다.
      * */
     public int getTotalPrice() {
-        /*int totalPrice = 0;
-        for(OrderItem orderItem : orderItems) {
-            totalPrice += orderItem.getTotalPrice();
-        }
-        return totalPrice;*/
-
-        return orderItems.stream().mapToInt(OrderItem::getTotalPrice).sum();
+        return totalPrice;
     }
 }
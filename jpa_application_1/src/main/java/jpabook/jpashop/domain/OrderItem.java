@@ -15,7 +15,8 @@ import lombok.Setter;
 public class OrderItem {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq_generator")
+    @SequenceGenerator(name = "order_item_seq_generator", sequenceName = "order_item_seq", allocationSize = 100)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -43,6 +44,17 @@ public class OrderItem {
         return orderItem;
     }
 
+    /**
+     * 재고를 StockService.reserve로 이미 차감한 경우 사용 (엔티티의 재고는 건드리지 않음)
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
+    }
+
     //==비즈니스 로직==//
     /** 주문 취소 */
     public void cancel() {
@@ -0,0 +1,54 @@
+package jpabook.jpashop.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 간단한 주문 조회용 읽기 모델(비정규화 테이블)
+ * orders, member, delivery를 매번 조인하지 않도록 주문/취소 시점에 같은 트랜잭션에서 함께 갱신한다.
+ * 주문 ID를 그대로 PK로 사용한다.
+ */
+@Entity
+@Table(name = "order_summary", indexes = @Index(name = "idx_order_summary_member_id", columnList = "member_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private String username;
+
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Embedded
+    private Address address;
+
+    //==생성 메서드==//
+    public static OrderSummary createOrderSummary(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.orderId = order.getId();
+        summary.memberId = order.getMember().getId();
+        summary.username = order.getMember().getUsername();
+        summary.orderDate = order.getOrderDate();
+        summary.status = order.getStatus();
+        summary.address = order.getDelivery().getAddress();
+        return summary;
+    }
+
+    //==비즈니스 로직==//
+    public void changeStatus(OrderStatus status) {
+        this.status = status;
+    }
+}
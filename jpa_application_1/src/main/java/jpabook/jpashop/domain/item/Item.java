@@ -4,14 +4,20 @@ import jakarta.persistence.*;
 import jpabook.jpashop.domain.Category;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Setter를 가지고 밖에서 계산하는 것이 아니라 엔티티 안에 비즈니스 로직을 만들어서 처리하는 것이 객체지향적이고 응집도가 높다.
+ * 2차 캐시는 상속 루트에만 설정하고 Book, Album, Movie는 같은 region을 사용한다.
+ * READ_WRITE 전략이라 이름/가격 같은 변경 감지 수정은 커밋 시점에 캐시에도 반영된다.
  * */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
 @Getter
@@ -27,8 +33,20 @@ public abstract class Item {
 
     private int price;
 
+    /**
+     * 재고는 엔티티 UPDATE에 포함하지 않는다. 저장 후의 재고 변경은 StockService(네이티브 조건부 update)로만 한다.
+     * addStock/removeStock/changeStockQuantity는 저장 전의 상품에만 의미가 있다.
+     */
+    @Column(updatable = false)
     private int stockQuantity;
 
+    /**
+     * 관리자 수정끼리 이름/가격을 서로 덮어쓰지 않도록 낙관적 락을 사용한다.
+     * 재고 변경은 version을 증가시키지 않으므로 주문이 들어와도 관리자 수정이 실패하지 않는다.
+     */
+    @Version
+    private long version;
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
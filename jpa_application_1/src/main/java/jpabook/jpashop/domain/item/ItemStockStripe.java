@@ -0,0 +1,40 @@
+package jpabook.jpashop.domain.item;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 주문이 몰리는 상품의 재고를 여러 row로 나눠서 보관한다.
+ * 하나의 row lock에 줄 서지 않고 여러 row에 재고 차감을 분산시키기 위함
+ * 상품의 전체 재고 = item.stock_quantity + 모든 stripe의 quantity
+ */
+@Entity
+@Table(name = "item_stock_stripe",
+        uniqueConstraints = @UniqueConstraint(name = "uk_item_stock_stripe", columnNames = {"item_id", "stripe_no"}))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ItemStockStripe {
+
+    @Id
+    @GeneratedValue
+    @Column(name = "item_stock_stripe_id")
+    private Long id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "stripe_no", nullable = false)
+    private int stripeNo;
+
+    private int quantity;
+
+    public static ItemStockStripe createStripe(Long itemId, int stripeNo, int quantity) {
+        ItemStockStripe stripe = new ItemStockStripe();
+        stripe.itemId = itemId;
+        stripe.stripeNo = stripeNo;
+        stripe.quantity = quantity;
+        return stripe;
+    }
+}
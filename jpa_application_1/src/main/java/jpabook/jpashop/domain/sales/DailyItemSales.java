@@ -0,0 +1,45 @@
+package jpabook.jpashop.domain.sales;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 일별/상품별 매출 집계 (주문일 기준, 취소된 주문 제외)
+ * 주문/취소 시점에 SalesRollupRepository가 증감하고, 과거 데이터는 backfill로 다시 만든다.
+ */
+@Entity
+@Table(name = "daily_item_sales")
+@IdClass(DailyItemSales.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class DailyItemSales {
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    private long orderCount; // 주문 수
+
+    private long quantity; // 판매 수량
+
+    private long amount; // 매출 (주문가격 * 수량)
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private Long itemId;
+    }
+}
@@ -0,0 +1,44 @@
+package jpabook.jpashop.domain.sales;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 일별/회원별 매출 집계 (주문일 기준, 취소된 주문 제외)
+ */
+@Entity
+@Table(name = "daily_member_sales")
+@IdClass(DailyMemberSales.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class DailyMemberSales {
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private long orderCount; // 주문 수
+
+    private long quantity; // 구매 수량
+
+    private long amount; // 구매 금액
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private Long memberId;
+    }
+}
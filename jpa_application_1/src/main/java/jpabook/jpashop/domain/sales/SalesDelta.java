@@ -0,0 +1,31 @@
+package jpabook.jpashop.domain.sales;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 아직 매출 집계에 반영하지 않은 주문/취소 (append-only)
+ * 주문 트랜잭션은 여기에 insert만 하고, 집계 row 갱신은 커밋 후 SalesRollupService.fold가 모아서 한다.
+ * 그래서 같은 상품/날짜로 주문이 몰려도 주문 트랜잭션끼리 집계 row lock을 기다리지 않는다.
+ */
+@Entity
+@Table(name = "sales_delta")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SalesDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "delta_id")
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    private int sign; // 1: 주문, -1: 취소
+
+    @Column(length = 36)
+    private String folding; // fold 중인 트랜잭션의 token (null이면 대기 중)
+}
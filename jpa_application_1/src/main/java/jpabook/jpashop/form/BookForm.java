@@ -10,7 +10,10 @@ public class BookForm {
     private String name;
     private int price;
     private int stockQuantity;
+    private Integer originalStockQuantity; // 수정 화면을 열었을 때의 재고 (상품 row + stripe)
 
     private String author;
     private String isbn;
+
+    private Long version; // 수정 화면을 열었을 때의 상품 version
 }
@@ -4,10 +4,13 @@ import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.SalesRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class initDb {
@@ -36,23 +39,26 @@ public class initDb {
     static class InitService {
 
         private final EntityManager em;
+        private final SalesRollupService salesRollupService;
 
         public void dbInit1() {
             Member member = createMember("userA", "서울", "길거리", "54321");
             em.persist(member);
 
             Book book1 = Book.createBook("JPA1", 10000, 100, "김영한", "23456");
-            em.persist(book1);
             Book book2 = Book.createBook("JPA2", 20000, 100, "김영한", "34567");
-            em.persist(book2);
 
             OrderItem orderItem1 = OrderItem.createOrderItem(book1, 10000, 1);
             OrderItem orderItem2 = OrderItem.createOrderItem(book2, 20000, 2);
+            em.persist(book1); // 재고는 update되지 않으므로 차감한 뒤에 저장
+            em.persist(book2);
 
             Delivery delivery = createDelivery(member);
 
             Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
             em.persist(order);
+            em.persist(OrderSummary.createOrderSummary(order));
+            salesRollupService.record(List.of(order.getId()), 1);
         }
 
         public void dbInit2() {
@@ -60,17 +66,19 @@ public class initDb {
             em.persist(member);
 
             Book book1 = Book.createBook("SPRING1", 20000, 200, "슈퓨람", "45678");
-            em.persist(book1);
             Book book2 = Book.createBook("SPRING2", 40000, 300, "슈퓨람", "56789");
-            em.persist(book2);
 
             OrderItem orderItem1 = OrderItem.createOrderItem(book1, 20000, 3);
             OrderItem orderItem2 = OrderItem.createOrderItem(book2, 40000, 4);
+            em.persist(book1); // 재고는 update되지 않으므로 차감한 뒤에 저장
+            em.persist(book2);
 
             Delivery delivery = createDelivery(member);
 
             Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
             em.persist(order);
+            em.persist(OrderSummary.createOrderSummary(order));
+            salesRollupService.record(List.of(order.getId()), 1);
         }
 
         private Delivery createDelivery(Member member) {
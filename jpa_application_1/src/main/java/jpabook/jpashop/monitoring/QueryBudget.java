@@ -0,0 +1,63 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 테스트에서 쿼리 수 예산을 검증하기 위한 API
+ * <pre>
+ * QueryBudget.assertAtMost(1, () -> orderSimpleApiController.ordersV3());
+ * QueryBudget.assertNoNPlusOne(2, () -> orderApiController.ordersV6());
+ * </pre>
+ * 지연 로딩 쿼리까지 세려면 트랜잭션(@Transactional 테스트) 안에서 호출해야 한다.
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    public static QueryCount count(Runnable work) {
+        return count(() -> {
+            work.run();
+            return null;
+        }).count;
+    }
+
+    public static <T> T assertAtMost(int maxStatements, Supplier<T> work) {
+        Counted<T> counted = count(work);
+        if (counted.count.getTotal() > maxStatements) {
+            throw new AssertionError("쿼리 예산 초과: 최대 " + maxStatements + "개, 실제 " + counted.count);
+        }
+        return counted.result;
+    }
+
+    /**
+     * 같은 모양의 SQL이 threshold 번 이상 실행되면 실패
+     */
+    public static <T> T assertNoNPlusOne(int threshold, Supplier<T> work) {
+        Counted<T> counted = count(work);
+        Map<String, Integer> repeated = counted.count.findRepeated(threshold);
+        if (!repeated.isEmpty()) {
+            throw new AssertionError("N+1 의심: " + repeated);
+        }
+        return counted.result;
+    }
+
+    private static <T> Counted<T> count(Supplier<T> work) {
+        QueryCount count = new QueryCount();
+        QueryCount previous = SqlStatementCounter.start(count);
+        try {
+            return new Counted<>(work.get(), count);
+        } finally {
+            SqlStatementCounter.stop(previous);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Counted<T> {
+        private final T result;
+        private final QueryCount count;
+    }
+}
@@ -0,0 +1,68 @@
+package jpabook.jpashop.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 한 범위(HTTP 요청, 테스트 블록) 안에서 실행된 SQL 수
+ * 파라미터 값만 다른 같은 모양의 SQL이 여러 번 나오면 N+1로 본다.
+ */
+public class QueryCount {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'[^']*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+
+    private final Map<String, Integer> countByShape = new LinkedHashMap<>();
+    private int total;
+
+    void record(String sql) {
+        total++;
+        countByShape.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * 가장 많이 반복된 SQL 모양의 실행 횟수
+     */
+    public int getMaxRepeat() {
+        return countByShape.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    /**
+     * threshold 번 이상 반복된 SQL 모양 (key: SQL 모양, value: 실행 횟수)
+     */
+    public Map<String, Integer> findRepeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        countByShape.forEach((shape, count) -> {
+            if (count >= threshold) repeated.put(shape, count);
+        });
+        return repeated;
+    }
+
+    public Map<String, Integer> getCountByShape() {
+        return countByShape;
+    }
+
+    /**
+     * 리터럴과 in 절 파라미터 개수를 지워서 값만 다른 SQL을 같은 모양으로 만든다.
+     */
+    static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("in (?)");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("total=").append(total);
+        countByShape.forEach((shape, count) -> sb.append("\n  ").append(count).append("x ").append(shape));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * HTTP 요청마다 실행된 SQL 수를 센다.
+ * - 응답 헤더 X-Query-Count, X-Query-Max-Repeat
+ * - 메트릭 jpashop.request.sql (요청당 SQL 수), jpashop.request.n-plus-one (N+1 의심 요청 수)
+ * - 같은 모양의 SQL이 threshold 번 이상 실행되면 warn 로그
+ * 헤더는 응답 본문을 쓰기 시작하는 시점까지의 수이다. (OSIV로 뷰 렌더링/직렬화 중에 실행되는 지연 로딩은 메트릭과 로그에만 포함)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String MAX_REPEAT_HEADER = "X-Query-Max-Repeat";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jpashop.query-count.n-plus-one-threshold:5}")
+    private int nPlusOneThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCount count = new QueryCount();
+        QueryCount previous = SqlStatementCounter.start(count);
+        QueryCountResponse wrapped = new QueryCountResponse(response, count);
+        try {
+            filterChain.doFilter(request, wrapped);
+        } finally {
+            SqlStatementCounter.stop(previous);
+            wrapped.writeHeaders();
+            record(request, count);
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryCount count) {
+        String uri = uriPattern(request);
+        DistributionSummary.builder("jpashop.request.sql")
+                .description("HTTP 요청당 실행된 SQL 수")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(count.getTotal());
+
+        Map<String, Integer> repeated = count.findRepeated(nPlusOneThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("jpashop.request.n-plus-one")
+                    .description("같은 모양의 SQL이 반복 실행된 요청 수")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("N+1 의심 {} {} total={} repeated={}", request.getMethod(), uri, count.getTotal(), repeated);
+        }
+    }
+
+    /**
+     * 태그 값이 무한히 늘어나지 않도록 실제 URI가 아닌 매핑 패턴을 사용한다.
+     */
+    private static String uriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    /**
+     * 본문을 쓰기 직전(응답이 커밋되기 전)에 헤더를 추가한다.
+     */
+    private static class QueryCountResponse extends HttpServletResponseWrapper {
+
+        private final QueryCount count;
+        private boolean headersWritten;
+
+        QueryCountResponse(HttpServletResponse response, QueryCount count) {
+            super(response);
+            this.count = count;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        void writeHeaders() {
+            if (headersWritten || isCommitted()) return;
+            headersWritten = true;
+            setHeader(QUERY_COUNT_HEADER, String.valueOf(count.getTotal()));
+            setHeader(MAX_REPEAT_HEADER, String.valueOf(count.getMaxRepeat()));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package jpabook.jpashop.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy가 감싼 DataSource에서 실행되는 모든 SQL의 실행 시간을 SQL 모양별 Timer(jpashop.sql)로 기록한다.
+ * 느린 쿼리(slow-threshold-ms 이상)는 sample-rate 비율로만 바인딩 값이 들어간 SQL을 남긴다.
+ * 모든 SQL의 바인딩 값을 남기는 org.hibernate.orm.jdbc.bind trace 로그 대신 사용한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlLatencyListener extends SimpleJdbcEventListener {
+
+    private static final int MAX_SHAPES = 500; // 메트릭 태그가 무한히 늘어나지 않도록
+    private static final int MAX_SQLS = 5_000;
+    private static final String OTHER_SHAPE = "OTHER";
+    private static final int MAX_SLOW_QUERIES = 100;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>(); // key: SQL 모양
+    private final Map<String, Timer> timersBySql = new ConcurrentHashMap<>(); // key: 실행된 SQL 문자열
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    @Value("${jpashop.sql.slow-threshold-ms:100}")
+    private long slowThresholdMillis;
+
+    @Value("${jpashop.sql.slow-sample-rate:0.1}")
+    private double slowSampleRate;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        timerOf(statementInformation.getSql()).record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos);
+        if (elapsedMillis >= slowThresholdMillis && ThreadLocalRandom.current().nextDouble() < slowSampleRate) {
+            SlowQuery slowQuery = new SlowQuery(statementInformation.getSqlWithValues(), elapsedMillis, LocalDateTime.now());
+            log.warn("slow query {}ms {}", elapsedMillis, slowQuery.getSql());
+            synchronized (slowQueries) {
+                if (slowQueries.size() == MAX_SLOW_QUERIES) {
+                    slowQueries.removeFirst();
+                }
+                slowQueries.addLast(slowQuery);
+            }
+        }
+    }
+
+    /**
+     * 최근에 샘플링된 느린 쿼리 (최신순)
+     */
+    public List<SlowQuery> findSlowQueries() {
+        synchronized (slowQueries) {
+            List<SlowQuery> result = new ArrayList<>(slowQueries);
+            Collections.reverse(result);
+            return result;
+        }
+    }
+
+    /**
+     * 같은 SQL 문자열은 모양을 다시 계산하지 않도록 SQL 문자열 -> Timer 를 캐시한다.
+     */
+    private Timer timerOf(String sql) {
+        Timer timer = timersBySql.get(sql);
+        if (timer != null) {
+            return timer;
+        }
+        String shape = QueryCount.shapeOf(sql);
+        if (!timers.containsKey(shape) && timers.size() >= MAX_SHAPES) {
+            shape = OTHER_SHAPE;
+        }
+        timer = timers.computeIfAbsent(shape, tag -> Timer.builder("jpashop.sql")
+                .description("SQL 모양별 실행 시간")
+                .tag("sql", tag)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        if (timersBySql.size() < MAX_SQLS) {
+            timersBySql.put(sql, timer);
+        }
+        return timer;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SlowQuery {
+        private String sql;
+        private long elapsedMillis;
+        private LocalDateTime executedAt;
+    }
+}
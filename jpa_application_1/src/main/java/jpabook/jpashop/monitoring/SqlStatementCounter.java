@@ -0,0 +1,39 @@
+package jpabook.jpashop.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 하이버네이트가 실행하는 SQL을 현재 스레드의 QueryCount에 기록한다.
+ * start ~ stop 사이에서만 기록하므로 범위 밖(스케줄러, 시작 시 초기화 등)의 SQL에는 비용이 거의 없다.
+ * JDBC를 직접 사용하는 SQL(BulkDataGenerator 등)은 세지 않는다.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<QueryCount> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        QueryCount count = CURRENT.get();
+        if (count != null) {
+            count.record(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * @return 이전에 기록 중이던 QueryCount (stop 할 때 돌려준다)
+     */
+    public static QueryCount start(QueryCount count) {
+        QueryCount previous = CURRENT.get();
+        CURRENT.set(count);
+        return previous;
+    }
+
+    public static void stop(QueryCount previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
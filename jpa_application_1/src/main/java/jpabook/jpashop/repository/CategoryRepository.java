@@ -0,0 +1,40 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Category;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    public void save(Category category) {
+        em.persist(category);
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    /**
+     * 카테고리 전체를 (id, name, parentId) 로 한 번에 조회
+     * 트리 전체가 필요할 때는 부모 -> 자식으로 레벨마다 지연 로딩하지 않고 인접 목록을 통째로 읽어서 메모리에서 조립한다.
+     */
+    public List<Object[]> findAllNodes() {
+        return em.createQuery("select c.id, c.name, p.id from Category c left join c.parent p", Object[].class)
+                .getResultList();
+    }
+
+    /**
+     * category_item 매핑 전체를 (categoryId, itemId) 로 한 번에 조회
+     */
+    public List<Object[]> findAllCategoryItemIds() {
+        return em.createQuery("select c.id, i.id from Category c join c.items i", Object[].class)
+                .getResultList();
+    }
+}
@@ -0,0 +1,162 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.ItemStockStripe;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * 재고를 엔티티 변경 감지(읽고-수정하고-쓰기)가 아니라 조건부 UPDATE 한 문장으로 변경한다.
+ * where 절에서 재고를 확인하고 차감까지 하므로 동시에 주문이 들어와도 갱신 손실이 없다.
+ * <p>
+ * JPQL 벌크 연산은 Item 2차 캐시 region 전체를 비워버리기 때문에
+ * 네이티브 쿼리에 별도 query space를 지정하고, 변경한 상품만 캐시에서 제거한다.
+ * 실행하면 영속성 컨텍스트에 있는 Item의 재고는 DB와 달라지므로 필요하면 다시 조회해야 한다.
+ * 재고는 엔티티 UPDATE에서 제외되어 있으므로(Item.stockQuantity) version은 증가시키지 않는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemStockRepository {
+
+    private static final String STOCK_QUERY_SPACE = "item_stock";
+
+    private final EntityManager em;
+
+    /**
+     * @return 변경된 row 수 (0이면 재고 부족)
+     */
+    public int decrease(Long itemId, int quantity) {
+        int updated = nativeUpdate("update item set stock_quantity = stock_quantity - :quantity" +
+                " where item_id = :itemId and stock_quantity >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+        evictItem(itemId);
+        return updated;
+    }
+
+    public int increase(Long itemId, int quantity) {
+        int updated = nativeUpdate("update item set stock_quantity = stock_quantity + :quantity" +
+                " where item_id = :itemId")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+        evictItem(itemId);
+        return updated;
+    }
+
+    public int decreaseStripe(Long itemId, int stripeNo, int quantity) {
+        return nativeUpdate("update item_stock_stripe set quantity = quantity - :quantity" +
+                " where item_id = :itemId and stripe_no = :stripeNo and quantity >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .setParameter("stripeNo", stripeNo)
+                .executeUpdate();
+    }
+
+    public int increaseStripe(Long itemId, int stripeNo, int quantity) {
+        return nativeUpdate("update item_stock_stripe set quantity = quantity + :quantity" +
+                " where item_id = :itemId and stripe_no = :stripeNo")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .setParameter("stripeNo", stripeNo)
+                .executeUpdate();
+    }
+
+    /**
+     * 상품 row를 잠그고 재고를 읽는다. (여러 row에 걸쳐서 차감/재분배할 때 사용)
+     */
+    public int lockItemStock(Long itemId) {
+        em.flush();
+        Number stock = (Number) em.createNativeQuery("select stock_quantity from item where item_id = :itemId for update")
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+        return stock.intValue();
+    }
+
+    /**
+     * 상품의 stripe row를 stripe_no 순서로 잠그고 수량을 읽는다. (key: stripe_no, value: quantity)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Integer, Integer> lockStripes(Long itemId) {
+        List<Object[]> rows = em.createNativeQuery(
+                        "select stripe_no, quantity from item_stock_stripe where item_id = :itemId order by stripe_no for update")
+                .setParameter("itemId", itemId)
+                .getResultList();
+        Map<Integer, Integer> stripes = new LinkedHashMap<>();
+        rows.forEach(row -> stripes.put(((Number) row[0]).intValue(), ((Number) row[1]).intValue()));
+        return stripes;
+    }
+
+    public void saveStripe(ItemStockStripe stripe) {
+        em.persist(stripe);
+    }
+
+    public int findItemStock(Long itemId) {
+        return em.createQuery("select i.stockQuantity from Item i where i.id = :itemId", Integer.class)
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+    }
+
+    public int sumStripeQuantity(Long itemId) {
+        Long sum = em.createQuery("select coalesce(sum(s.quantity), 0) from ItemStockStripe s where s.itemId = :itemId", Long.class)
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+        return sum.intValue();
+    }
+
+    /**
+     * 상품별 stripe 재고 합계 (key: itemId, stripe가 없는 상품은 포함되지 않음)
+     */
+    public Map<Long, Integer> sumStripeQuantities(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Object[]> rows = em.createQuery("select s.itemId, sum(s.quantity) from ItemStockStripe s" +
+                        " where s.itemId in :itemIds group by s.itemId", Object[].class)
+                .setParameter("itemIds", itemIds)
+                .getResultList();
+        return rows.stream().collect(toMap(r -> (Long) r[0], r -> ((Long) r[1]).intValue()));
+    }
+
+    /**
+     * 상품별 stripe 개수 (key: itemId)
+     */
+    public Map<Long, Integer> findStripeCounts() {
+        List<Object[]> rows = em.createQuery("select s.itemId, count(s) from ItemStockStripe s group by s.itemId", Object[].class)
+                .getResultList();
+        return rows.stream().collect(toMap(r -> (Long) r[0], r -> ((Long) r[1]).intValue()));
+    }
+
+    private NativeQuery<?> nativeUpdate(String sql) {
+        em.flush(); // 별도 query space라 자동 flush가 되지 않으므로 아직 반영되지 않은 insert 등을 먼저 반영
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_QUERY_SPACE);
+    }
+
+    /**
+     * 지금 바로 제거하고, 커밋 전에 다른 트랜잭션이 옛날 값을 다시 올려둘 수 있으니 커밋 후에 한 번 더 제거한다.
+     */
+    private void evictItem(Long itemId) {
+        em.getEntityManagerFactory().getCache().evict(Item.class, itemId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    em.getEntityManagerFactory().getCache().evict(Item.class, itemId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 회원 이름 Bloom filter
+ * 회원 가입 시 중복 검사 전에 확인해서 "확실히 없는" 이름이면 DB 조회를 생략한다.
+ * - false positive(없는데 있다고 함) : 어차피 DB를 조회하므로 결과는 정확하다.
+ * - false negative(있는데 없다고 함) : 가입/이름 변경 시 바로 추가하고 롤백되어도 지우지 않으므로 평소에는 없다.
+ *   단, rebuild가 회원을 조회할 때 아직 커밋되지 않은 가입은 조회 결과에 없고, rebuild 시작 전에 추가되었으면
+ *   새 filter에 다시 넣지 못해서 false negative가 될 수 있다.
+ * 그래서 중복 가입을 최종적으로 막는 것은 member.username 유니크 제약(uk_member_username)이고,
+ * MemberService는 가입/이름 변경 시 flush 해서 제약 위반을 IllegalStateException으로 바꾼다.
+ * 이름 변경으로 사라진 이름은 지울 수 없으므로 false positive로 남고, rebuild 하면 정리된다.
+ */
+@Slf4j
+@Component
+public class MemberNameBloomFilter {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final EntityManager em;
+    private final boolean enabled;
+    private final long minExpectedInsertions;
+
+    private volatile Bits bits; // rebuild 전에는 null (항상 있을 수도 있다고 응답)
+    private volatile boolean rebuilding;
+    private final Queue<String> addedWhileRebuilding = new ConcurrentLinkedQueue<>();
+
+    public MemberNameBloomFilter(EntityManager em,
+                                 @Value("${jpashop.member-bloom.enabled:true}") boolean enabled,
+                                 @Value("${jpashop.member-bloom.expected-insertions:100000}") long minExpectedInsertions) {
+        this.em = em;
+        this.enabled = enabled;
+        this.minExpectedInsertions = minExpectedInsertions;
+    }
+
+    /**
+     * 현재 회원 수의 2배(최소 expected-insertions)를 기준으로 크기를 정해서 다시 만든다.
+     * 만드는 동안 추가된 이름은 새 filter에도 반영한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) return;
+        rebuilding = true;
+        try {
+            List<String> names = em.createQuery("select m.username from Member m", String.class).getResultList();
+            Bits newBits = new Bits(Math.max(minExpectedInsertions, names.size() * 2L), FALSE_POSITIVE_RATE);
+            names.forEach(newBits::put);
+            bits = newBits;
+            for (String name; (name = addedWhileRebuilding.poll()) != null; ) {
+                newBits.put(name);
+            }
+            log.info("member bloom filter rebuilt names={} bits={} hashes={}", names.size(), newBits.size, newBits.hashCount);
+        } finally {
+            rebuilding = false;
+            addedWhileRebuilding.clear();
+        }
+    }
+
+    /**
+     * @return false면 해당 이름의 회원은 확실히 없다.
+     */
+    public boolean mightContain(String username) {
+        Bits current = bits;
+        return current == null || username == null || current.mightContain(username);
+    }
+
+    public void add(String username) {
+        if (!enabled || username == null) return;
+        if (rebuilding) {
+            addedWhileRebuilding.add(username);
+        }
+        Bits current = bits;
+        if (current != null) {
+            current.put(username);
+        }
+    }
+
+    /**
+     * 크기가 고정된 bit 배열과 k개의 해시 함수
+     * 해시 2개(h1, h2)로 h1 + i * h2 를 만들어서 k번 해시하는 효과를 낸다. (Kirsch-Mitzenmacher)
+     */
+    static class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashCount;
+
+        Bits(long expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((m + 63) / 64));
+            this.size = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) size / expectedInsertions * Math.log(2)));
+        }
+
+        void put(String value) {
+            long hash = hash64(value);
+            long h1 = hash;
+            long h2 = hash >>> 32 | hash << 32;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(h1 + i * h2, size);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long old;
+                do {
+                    old = words.get(word);
+                    if ((old & mask) != 0) break;
+                } while (!words.compareAndSet(word, old, old | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash64(value);
+            long h1 = hash;
+            long h2 = hash >>> 32 | hash << 32;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * FNV-1a 64bit + splitmix64 마무리 (String.hashCode는 32bit라 분포가 부족하다)
+         */
+        static long hash64(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 30;
+            h *= 0xbf58476d1ce4e5b9L;
+            h ^= h >>> 27;
+            h *= 0x94d049bb133111ebL;
+            h ^= h >>> 31;
+            return h;
+        }
+    }
+}
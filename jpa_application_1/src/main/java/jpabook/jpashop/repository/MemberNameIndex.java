@@ -0,0 +1,125 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 회원 이름 -> 회원 ID 메모리 인덱스 (이름 순으로 정렬)
+ * like '%이름%' 처럼 member 전체를 스캔하지 않고, 이름 접두사로 회원 ID를 바로 찾은 뒤
+ * orders.member_id in (...) 인덱스 조회로 넘기기 위함
+ * 회원 가입/이름 변경 시 커밋된 후에 반영한다.
+ * rebuild는 새 인덱스를 다 만든 뒤에 통째로 교체하므로 조회하는 쪽이 비어 있는 인덱스를 보지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberNameIndex {
+
+    private final EntityManager em;
+
+    private volatile Index index = new Index();
+    private List<Runnable> changedWhileRebuilding; // rebuild 중일 때만 not null (this로 동기화)
+
+    /**
+     * initDb 등 시작 시점에 들어간 데이터까지 포함하도록 애플리케이션이 준비된 후에 만든다.
+     * 조회하는 동안 커밋된 가입/이름 변경은 새 인덱스에 다시 적용한 후 교체한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            changedWhileRebuilding = new ArrayList<>();
+        }
+        try {
+            List<Object[]> rows = em.createQuery("select m.id, m.username from Member m", Object[].class)
+                    .getResultList();
+            Index newIndex = new Index();
+            rows.forEach(row -> newIndex.put((Long) row[0], (String) row[1]));
+
+            synchronized (this) {
+                index = newIndex;
+                changedWhileRebuilding.forEach(Runnable::run);
+            }
+        } finally {
+            synchronized (this) {
+                changedWhileRebuilding = null;
+            }
+        }
+    }
+
+    /**
+     * 이름이 prefix로 시작하는 회원 ID (최대 limit 개)
+     */
+    public List<Long> findIdsByPrefix(String prefix, int limit) {
+        NavigableMap<String, Set<Long>> matches = index.idsByName.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        return matches.values().stream()
+                .flatMap(Collection::stream)
+                .limit(limit)
+                .toList();
+    }
+
+    public void add(Long memberId, String username) {
+        afterCommit(() -> index.put(memberId, username));
+    }
+
+    public void rename(Long memberId, String username) {
+        afterCommit(() -> {
+            Index current = index;
+            current.remove(memberId);
+            current.put(memberId, username);
+        });
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private synchronized void apply(Runnable change) {
+        change.run();
+        if (changedWhileRebuilding != null) {
+            changedWhileRebuilding.add(change);
+        }
+    }
+
+    private static class Index {
+
+        private final ConcurrentSkipListMap<String, Set<Long>> idsByName = new ConcurrentSkipListMap<>();
+        private final Map<Long, String> nameById = new ConcurrentHashMap<>();
+
+        private void put(Long memberId, String username) {
+            if (username == null) return;
+            idsByName.computeIfAbsent(username, k -> ConcurrentHashMap.newKeySet()).add(memberId);
+            nameById.put(memberId, username);
+        }
+
+        private void remove(Long memberId) {
+            String oldName = nameById.remove(memberId);
+            if (oldName == null) return;
+            idsByName.computeIfPresent(oldName, (k, ids) -> {
+                ids.remove(memberId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
@@ -18,6 +18,18 @@ public class MemberRepository {
         em.persist(member);
     }
 
+    /**
+     * 유니크 제약 위반을 커밋 시점이 아니라 호출한 곳에서 바로 알기 위해 insert를 즉시 반영한다.
+     */
+    public void saveAndFlush(Member member) {
+        em.persist(member);
+        em.flush();
+    }
+
+    public void flush() {
+        em.flush();
+    }
+
     public Member findOne(Long id) {
         return em.find(Member.class, id);
     }
@@ -32,4 +44,9 @@ public class MemberRepository {
                 .getResultList();
     }
 
+    public TableVersion findTableVersion() {
+        return new TableVersion(em.createQuery(
+                        "select count(m), coalesce(sum(m.version), 0), coalesce(max(m.id), 0) from Member m", Object[].class)
+                .getSingleResult());
+    }
 }
@@ -0,0 +1,148 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Item;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문 일괄 취소용 집합(set) 기반 쿼리
+ * 주문을 한 건씩 엔티티로 조회해서 변경 감지하지 않고, orderIds 단위로 한 번에 변경한다.
+ * 영속성 컨텍스트를 거치지 않으므로 chunk마다 별도 트랜잭션에서 실행하는 것을 전제로 한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBulkRepository {
+
+    private static final String BULK_QUERY_SPACE = "order_bulk";
+
+    private final EntityManager em;
+
+    /**
+     * 취소 가능한 주문(ORDER 상태, 배송 완료 아님)의 id를 afterId 다음부터 limit 개 조회
+     */
+    public List<Long> findCancelableIds(LocalDateTime from, LocalDateTime to, Long afterId, int limit) {
+        TypedQuery<Long> query = em.createQuery(
+                        "select o.id from Order o" +
+                                " join o.delivery d" +
+                                " where o.status = :status" +
+                                " and (d.status is null or d.status <> :comp)" +
+                                " and o.id > :afterId" +
+                                dateCondition(from, to) +
+                                " order by o.id", Long.class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("comp", DeliveryStatus.COMP)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit);
+        bindDate(query, from, to);
+        return query.getResultList();
+    }
+
+    /**
+     * 조건에는 맞지만 배송 완료라서 취소할 수 없는 주문 수
+     */
+    public long countDelivered(LocalDateTime from, LocalDateTime to) {
+        TypedQuery<Long> query = em.createQuery(
+                "select count(o) from Order o" +
+                        " join o.delivery d" +
+                        " where o.status = :status" +
+                        " and d.status = :comp" +
+                        dateCondition(from, to), Long.class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("comp", DeliveryStatus.COMP);
+        bindDate(query, from, to);
+        return query.getSingleResult();
+    }
+
+    /**
+     * 아직 ORDER 상태인 주문만 다시 걸러내면서 주문과 배송 row lock을 잡는다.
+     * 동시에 다른 곳에서 취소된 주문의 재고를 두 번 원복하지 않고,
+     * findCancelableIds 이후에 배송 완료된 주문은 취소하지 않고 delivered로 돌려준다.
+     */
+    @SuppressWarnings("unchecked")
+    public LockedOrders lockOrdered(List<Long> orderIds) {
+        List<Object[]> rows = em.createNativeQuery(
+                        "select o.order_id, d.status from orders o" +
+                                " join delivery d on d.delivery_id = o.delivery_id" +
+                                " where o.order_id in (:orderIds) and o.status = 'ORDER'" +
+                                " for update")
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        List<Long> cancelable = new ArrayList<>();
+        int delivered = 0;
+        for (Object[] row : rows) {
+            if (DeliveryStatus.COMP.name().equals(row[1])) {
+                delivered++;
+            } else {
+                cancelable.add(((Number) row[0]).longValue());
+            }
+        }
+        return new LockedOrders(cancelable, delivered);
+    }
+
+    /**
+     * 주문 상품 수량만큼 상품 재고를 원복한다. (상품별로 합산해서 한 문장으로 처리)
+     */
+    public int restoreStock(List<Long> orderIds) {
+        List<Long> itemIds = em.createQuery(
+                        "select distinct oi.item.id from OrderItem oi where oi.order.id in :orderIds", Long.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        int updated = nativeUpdate("update item i set stock_quantity = stock_quantity +" +
+                " (select sum(oi.count) from order_item oi where oi.item_id = i.item_id and oi.order_id in (:orderIds))" +
+                " where i.item_id in (:itemIds)")
+                .setParameter("orderIds", orderIds)
+                .setParameter("itemIds", itemIds)
+                .executeUpdate();
+
+        itemIds.forEach(itemId -> em.getEntityManagerFactory().getCache().evict(Item.class, itemId));
+        return updated;
+    }
+
+    public int cancel(List<Long> orderIds) {
+        nativeUpdate("update order_summary set status = 'CANCEL' where order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+        // 네이티브 update는 @Version을 증가시키지 않으므로 직접 증가 (조건부 GET 변경 감지)
+        return nativeUpdate("update orders set status = 'CANCEL', version = version + 1 where order_id in (:orderIds)")
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class LockedOrders {
+        private List<Long> cancelableIds; // lock을 잡은 취소 가능한 주문
+        private int deliveredCount; // 그 사이에 배송 완료되어 취소할 수 없는 주문 수
+    }
+
+    private NativeQuery<?> nativeUpdate(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(BULK_QUERY_SPACE);
+    }
+
+    private static String dateCondition(LocalDateTime from, LocalDateTime to) {
+        String condition = "";
+        if (from != null) condition += " and o.orderDate >= :from";
+        if (to != null) condition += " and o.orderDate < :to";
+        return condition;
+    }
+
+    private static void bindDate(TypedQuery<?> query, LocalDateTime from, LocalDateTime to) {
+        if (from != null) query.setParameter("from", from);
+        if (to != null) query.setParameter("to", to);
+    }
+}
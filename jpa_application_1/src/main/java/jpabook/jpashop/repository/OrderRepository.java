@@ -1,6 +1,9 @@
 package jpabook.jpashop.repository;
 
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
@@ -9,6 +12,8 @@ import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.domain.QMember;
 import jpabook.jpashop.domain.QOrder;
+import jpabook.jpashop.domain.QOrderItem;
+import jpabook.jpashop.repository.order.simplequery.OrderListDto;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
@@ -17,6 +22,8 @@ import java.util.List;
 
 import static jpabook.jpashop.domain.QMember.member;
 import static jpabook.jpashop.domain.QOrder.order;
+import static jpabook.jpashop.domain.QOrderItem.orderItem;
+import static jpabook.jpashop.domain.item.QItem.item;
 
 @Repository
 public class OrderRepository {
@@ -36,6 +43,12 @@ public class OrderRepository {
         return em.find(Order.class, id);
     }
 
+    public TableVersion findTableVersion() {
+        return new TableVersion(em.createQuery(
+                        "select count(o), coalesce(sum(o.version), 0), coalesce(max(o.id), 0) from Order o", Object[].class)
+                .getSingleResult());
+    }
+
     public List<Order> findAllByString(OrderSearch orderSearch) {
         //language=JPAQL
         String jpql = "select o From Order o join o.member m";
@@ -60,7 +73,7 @@ public class OrderRepository {
             } else {
                 jpql += " and";
             }
-            jpql += " m.name like :name";
+            jpql += " m.username like :name";
         }
 
         TypedQuery<Order> query = em.createQuery(jpql, Order.class)
@@ -92,7 +105,7 @@ public class OrderRepository {
 
         //회원 이름 검색
         if (StringUtils.hasText(orderSearch.getMemberName())) {
-            Predicate name = cb.like(m.<String>get("name"), "%" + orderSearch.getMemberName() + "%");
+            Predicate name = cb.like(m.<String>get("username"), "%" + orderSearch.getMemberName() + "%");
             criteria.add(name);
         }
 
@@ -121,6 +134,31 @@ public class OrderRepository {
                 .getResultList();
     }
 
+    /**
+     * 키셋(seek) 페이징
+     * offset 방식은 앞의 row를 모두 읽고 버리기 때문에 뒤쪽 페이지로 갈수록 느려진다.
+     * (order_date, order_id) 인덱스를 타고 커서 다음 위치부터 limit 만큼만 읽는다.
+     * cursor가 null이면 첫 페이지
+     */
+    public List<Order> findAllWithMemberDelivery(OrderCursor cursor, int limit) {
+        String jpql = "select o from Order o" +
+                " join fetch o.member m" +
+                " join fetch o.delivery d";
+        if (cursor != null) {
+            jpql += " where o.orderDate > :orderDate" +
+                    " or (o.orderDate = :orderDate and o.id > :orderId)";
+        }
+        jpql += " order by o.orderDate asc, o.id asc";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(limit);
+        if (cursor != null) {
+            query.setParameter("orderDate", cursor.getOrderDate())
+                    .setParameter("orderId", cursor.getOrderId());
+        }
+        return query.getResultList();
+    }
+
     /**
      * hibernate 6 버전 부터는 distinct가 자동으로 적용되기 때문에 명시하지 않아도 된다
      */
@@ -141,11 +179,57 @@ public class OrderRepository {
         return query.select(order)
                 .from(order)
                 .join(order.member, member)
-                .where(statusEq(orderSearch.getOrderStatus()), nameLike(orderSearch.getMemberName()))
+                .where(statusEq(orderSearch.getOrderStatus()), nameLike(orderSearch.getMemberName()),
+                        totalPriceGoe(orderSearch.getMinTotalPrice()), totalPriceLoe(orderSearch.getMaxTotalPrice()))
+                .orderBy(orderBy(orderSearch))
                 .limit(1000)
                 .fetch();
     }
 
+    /**
+     * 주문 목록 화면 (키셋 페이징)
+     * 엔티티 대신 화면에 필요한 컬럼만 DTO로 조회해서 화면 렌더링 중에 member, orderItems, item 지연 로딩이 일어나지 않는다.
+     * 대표상품은 주문상품 중 id가 가장 작은 것을 서브쿼리로 골라서 조인한다.
+     * 전체 건수(count 쿼리) 대신 limit보다 1건 더 조회해서 다음 페이지 여부를 판단하도록 호출하는 쪽에서 limit + 1을 넘긴다.
+     * 정렬은 주문 id 역순(최신순) 또는 주문 금액 큰 순이고, afterId/afterTotalPrice는 이전 페이지의 마지막 줄이다. (null이면 첫 페이지)
+     *
+     * @param memberIds 회원 이름 검색을 MemberNameIndex로 회원 ID로 바꾼 경우
+     *                  (null이면 orderSearch의 회원 이름을 member.username 접두사 조건으로 사용)
+     */
+    public List<OrderListDto> findOrderList(OrderSearch orderSearch, List<Long> memberIds,
+                                            Long afterId, Integer afterTotalPrice, int limit) {
+        QOrderItem first = new QOrderItem("first");
+
+        return query.select(Projections.constructor(OrderListDto.class,
+                        order.id, member.username, item.name, orderItem.orderPrice, orderItem.count,
+                        order.totalPrice, order.status, order.orderDate))
+                .from(order)
+                .join(order.member, member)
+                .join(order.orderItems, orderItem)
+                .join(orderItem.item, item)
+                .where(orderItem.id.eq(JPAExpressions.select(first.id.min()).from(first).where(first.order.eq(order))),
+                        statusEq(orderSearch.getOrderStatus()),
+                        memberIds == null ? nameStartsWith(orderSearch.getMemberName()) : order.member.id.in(memberIds),
+                        totalPriceGoe(orderSearch.getMinTotalPrice()), totalPriceLoe(orderSearch.getMaxTotalPrice()),
+                        after(orderSearch, afterId, afterTotalPrice))
+                .orderBy(orderSearch.isSortByTotalPrice()
+                        ? new OrderSpecifier<?>[]{order.totalPrice.desc(), order.id.desc()}
+                        : new OrderSpecifier<?>[]{order.id.desc()})
+                .limit(limit)
+                .fetch();
+    }
+
+    private BooleanExpression after(OrderSearch orderSearch, Long afterId, Integer afterTotalPrice) {
+        if (afterId == null) {
+            return null;
+        }
+        if (orderSearch.isSortByTotalPrice() && afterTotalPrice != null) {
+            return order.totalPrice.lt(afterTotalPrice)
+                    .or(order.totalPrice.eq(afterTotalPrice).and(order.id.lt(afterId)));
+        }
+        return order.id.lt(afterId);
+    }
+
     private BooleanExpression statusEq(OrderStatus statusCond) {
         if (statusCond == null) {
             return null;
@@ -153,6 +237,34 @@ public class OrderRepository {
         return order.status.eq(statusCond);
     }
 
+    /**
+     * 주문 금액 조건은 orders.total_price 컬럼만 보므로 order_item을 조인하지 않는다.
+     */
+    private BooleanExpression totalPriceGoe(Integer minTotalPrice) {
+        return minTotalPrice == null ? null : order.totalPrice.goe(minTotalPrice);
+    }
+
+    private BooleanExpression totalPriceLoe(Integer maxTotalPrice) {
+        return maxTotalPrice == null ? null : order.totalPrice.loe(maxTotalPrice);
+    }
+
+    private OrderSpecifier<?>[] orderBy(OrderSearch orderSearch) {
+        if (orderSearch.isSortByTotalPrice()) {
+            return new OrderSpecifier<?>[]{order.totalPrice.desc(), order.id.desc()};
+        }
+        return new OrderSpecifier<?>[0];
+    }
+
+    /**
+     * member.username like 'prefix%' (username 유니크 인덱스를 탄다)
+     */
+    private BooleanExpression nameStartsWith(String memberName) {
+        if (!StringUtils.hasText(memberName)) {
+            return null;
+        }
+        return member.username.startsWith(memberName);
+    }
+
     private BooleanExpression nameLike(String memberName) {
         if (!StringUtils.hasText(memberName)) {
             return null;
@@ -9,4 +9,7 @@ import lombok.Setter;
 public class OrderSearch {
     private String memberName;
     private OrderStatus orderStatus;
+    private Integer minTotalPrice; // 주문 금액 이상
+    private Integer maxTotalPrice; // 주문 금액 이하
+    private boolean sortByTotalPrice; // 주문 금액 큰 순으로 정렬
 }
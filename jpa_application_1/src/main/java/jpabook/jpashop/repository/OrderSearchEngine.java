@@ -0,0 +1,118 @@
+package jpabook.jpashop.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jpabook.jpashop.domain.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문 검색 조건(주문 상태, 회원 이름, 주문 금액 범위)과 정렬 조합별로 쿼리를 애플리케이션 시작 시점에 한 번만 만들어 둔다.
+ * findAllByString(문자열 조립), findAllByCriteria(매번 Criteria 트리 생성)와 달리
+ * 호출할 때는 미리 파싱된 Named Query를 꺼내서 파라미터만 바인딩한다.
+ * 결과는 OrderRepository.findAll(OrderSearch)와 같다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderSearchEngine {
+
+    private static final int MAX_RESULTS = 1000; //최대 1000건
+    private static final String QUERY_PREFIX = "OrderSearch.";
+
+    // 조합을 나타내는 bit
+    private static final int STATUS = 1;
+    private static final int NAME = 1 << 1;
+    private static final int MIN_TOTAL_PRICE = 1 << 2;
+    private static final int MAX_TOTAL_PRICE = 1 << 3;
+    private static final int SORT_BY_TOTAL_PRICE = 1 << 4;
+    private static final int COMBINATIONS = 1 << 5;
+
+    private final EntityManagerFactory emf;
+    private final EntityManager em;
+
+    /**
+     * 조건 4개 + 정렬 여부 -> 32가지 조합의 쿼리를 Named Query로 등록
+     */
+    @PostConstruct
+    public void prepare() {
+        // 트랜잭션 밖이라 공유 EntityManager 대신 등록용 EntityManager를 직접 열고 닫는다.
+        EntityManager registerEm = emf.createEntityManager();
+        try {
+            for (int flags = 0; flags < COMBINATIONS; flags++) {
+                TypedQuery<Order> query = registerEm.createQuery(buildJpql(flags), Order.class)
+                        .setMaxResults(MAX_RESULTS);
+                emf.addNamedQuery(queryName(flags), query);
+            }
+        } finally {
+            registerEm.close();
+        }
+    }
+
+    public List<Order> search(OrderSearch orderSearch) {
+        int flags = flags(orderSearch);
+
+        TypedQuery<Order> query = em.createNamedQuery(queryName(flags), Order.class);
+        if (has(flags, STATUS)) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (has(flags, NAME)) {
+            query.setParameter("name", orderSearch.getMemberName());
+        }
+        if (has(flags, MIN_TOTAL_PRICE)) {
+            query.setParameter("minTotalPrice", orderSearch.getMinTotalPrice());
+        }
+        if (has(flags, MAX_TOTAL_PRICE)) {
+            query.setParameter("maxTotalPrice", orderSearch.getMaxTotalPrice());
+        }
+        return query.getResultList();
+    }
+
+    private static int flags(OrderSearch orderSearch) {
+        int flags = 0;
+        if (orderSearch.getOrderStatus() != null) flags |= STATUS;
+        if (StringUtils.hasText(orderSearch.getMemberName())) flags |= NAME;
+        if (orderSearch.getMinTotalPrice() != null) flags |= MIN_TOTAL_PRICE;
+        if (orderSearch.getMaxTotalPrice() != null) flags |= MAX_TOTAL_PRICE;
+        if (orderSearch.isSortByTotalPrice()) flags |= SORT_BY_TOTAL_PRICE;
+        return flags;
+    }
+
+    private static String buildJpql(int flags) {
+        List<String> conditions = new ArrayList<>();
+        if (has(flags, STATUS)) {
+            conditions.add("o.status = :status");
+        }
+        if (has(flags, NAME)) {
+            conditions.add("m.username like :name");
+        }
+        if (has(flags, MIN_TOTAL_PRICE)) {
+            conditions.add("o.totalPrice >= :minTotalPrice");
+        }
+        if (has(flags, MAX_TOTAL_PRICE)) {
+            conditions.add("o.totalPrice <= :maxTotalPrice");
+        }
+
+        String jpql = "select o from Order o join o.member m";
+        if (!conditions.isEmpty()) {
+            jpql += " where " + String.join(" and ", conditions);
+        }
+        if (has(flags, SORT_BY_TOTAL_PRICE)) {
+            jpql += " order by o.totalPrice desc, o.id desc";
+        }
+        return jpql;
+    }
+
+    private static boolean has(int flags, int flag) {
+        return (flags & flag) != 0;
+    }
+
+    private static String queryName(int flags) {
+        return QUERY_PREFIX + flags;
+    }
+}
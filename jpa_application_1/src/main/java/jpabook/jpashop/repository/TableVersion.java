@@ -0,0 +1,37 @@
+package jpabook.jpashop.repository;
+
+import lombok.Getter;
+
+/**
+ * 테이블 변경 감지용 값 (row 수, @Version 합계, 최대 id)
+ * - 수정 : 해당 row의 version이 1 증가하므로 합계가 바뀐다.
+ * - 추가 : row 수, 최대 id가 바뀐다.
+ * - 삭제 : row 수가 바뀐다.
+ * 전체 데이터를 조회/직렬화하지 않고 집계 쿼리 한 번으로 조건부 GET(ETag)의 비교값을 만든다.
+ */
+@Getter
+public class TableVersion {
+
+    private final long count;
+    private final long versionSum;
+    private final long maxId;
+
+    public TableVersion(Object[] row) {
+        this.count = ((Number) row[0]).longValue();
+        this.versionSum = ((Number) row[1]).longValue();
+        this.maxId = ((Number) row[2]).longValue();
+    }
+
+    /**
+     * 여러 테이블의 값을 합쳐서 ETag를 만든다.
+     */
+    public static String etag(String name, TableVersion... versions) {
+        StringBuilder sb = new StringBuilder(name);
+        for (TableVersion version : versions) {
+            sb.append('-').append(Long.toHexString(version.count))
+                    .append('.').append(Long.toHexString(version.versionSum))
+                    .append('.').append(Long.toHexString(version.maxId));
+        }
+        return sb.toString();
+    }
+}
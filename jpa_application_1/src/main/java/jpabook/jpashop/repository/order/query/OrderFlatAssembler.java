@@ -0,0 +1,50 @@
+package jpabook.jpashop.repository.order.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * o.id 순으로 정렬된 플랫 데이터를 한 번만 훑으면서 OrderQueryDto로 접어준다.
+ * groupingBy처럼 row마다 key 객체를 만들고 해시할 필요가 없고, 중간 Map도 만들지 않는다.
+ * orderId가 바뀌는 시점에 이전 주문이 완성되므로 스크롤(커서)로 읽는 경우에도 그대로 사용할 수 있다.
+ * 입력은 반드시 orderId 순으로 정렬되어 있어야 한다.
+ */
+public class OrderFlatAssembler implements Consumer<OrderFlatDto> {
+
+    private final Consumer<OrderQueryDto> downstream;
+    private OrderQueryDto current;
+
+    public OrderFlatAssembler(Consumer<OrderQueryDto> downstream) {
+        this.downstream = downstream;
+    }
+
+    public static List<OrderQueryDto> assemble(List<OrderFlatDto> flats) {
+        List<OrderQueryDto> result = new ArrayList<>();
+        OrderFlatAssembler assembler = new OrderFlatAssembler(result::add);
+        flats.forEach(assembler);
+        assembler.finish();
+        return result;
+    }
+
+    @Override
+    public void accept(OrderFlatDto flat) {
+        if (current == null || !current.getOrderId().equals(flat.getOrderId())) {
+            finish();
+            current = new OrderQueryDto(flat.getOrderId(), flat.getName(), flat.getOrderDate(),
+                    flat.getOrderStatus(), flat.getAddress(), new ArrayList<>());
+        }
+        current.getOrderItems().add(new OrderItemQueryDto(flat.getOrderId(),
+                flat.getItemName(), flat.getOrderPrice(), flat.getCount()));
+    }
+
+    /**
+     * 마지막으로 접고 있던 주문을 내보낸다. 입력이 끝나면 반드시 호출해야 한다.
+     */
+    public void finish() {
+        if (current != null) {
+            downstream.accept(current);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package jpabook.jpashop.repository.order.query;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * orderId 목록으로 OrderItem을 IN 쿼리로 조회하는 로더
+ * - orderIds를 chunkSize 단위로 나눠서 조회한다. (IN 절이 너무 길어지는 것을 방지)
+ * - IN 절 파라미터 개수는 hibernate.query.in_clause_parameter_padding 으로 2의 거듭제곱에 맞춰서 쿼리 플랜을 재사용한다.
+ * - chunk는 호출한 스레드의 트랜잭션(같은 커넥션, 같은 스냅샷, 읽기 전용 라우팅)에서 차례로 조회한다.
+ *   다른 스레드에서 동시에 조회하면 chunk마다 커넥션을 하나씩 더 잡게 되어, 풀 크기만큼 요청이 몰리면
+ *   모든 커넥션이 future를 기다리는 요청 스레드에 묶여서 로더 스레드가 커넥션을 얻지 못한다.
+ */
+@Component
+public class OrderItemBatchLoader {
+
+    private static final String ORDER_ITEM_QUERY =
+            "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+                    " from OrderItem oi" +
+                    " join oi.item i" +
+                    " where oi.order.id in :orderIds";
+
+    private final EntityManager em;
+    private final int chunkSize;
+
+    public OrderItemBatchLoader(EntityManager em,
+                                @Value("${jpashop.order-item-loader.chunk-size:1000}") int chunkSize) {
+        this.em = em;
+        this.chunkSize = chunkSize;
+    }
+
+    public Map<Long, List<OrderItemQueryDto>> load(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        List<OrderItemQueryDto> orderItems = new ArrayList<>();
+        for (List<Long> ids : chunk(orderIds, chunkSize)) {
+            orderItems.addAll(findOrderItems(ids));
+        }
+        return orderItems.stream().collect(groupingBy(OrderItemQueryDto::getOrderId));
+    }
+
+    private List<OrderItemQueryDto> findOrderItems(List<Long> orderIds) {
+        return em.createQuery(ORDER_ITEM_QUERY, OrderItemQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    /**
+     * ids를 size 단위로 나눈다.
+     */
+    static List<List<Long>> chunk(List<Long> ids, int size) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += size) {
+            chunks.add(ids.subList(from, Math.min(from + size, ids.size())));
+        }
+        return chunks;
+    }
+}
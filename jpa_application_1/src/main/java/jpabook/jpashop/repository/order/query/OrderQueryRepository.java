@@ -2,17 +2,33 @@ package jpabook.jpashop.repository.order.query;
 
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
+    private static final String FLAT_QUERY =
+            "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.username, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                    " from Order o" +
+                    " join o.member m" +
+                    " join o.delivery d" +
+                    " join o.orderItems oi" +
+                    " join oi.item i";
+    private static final String FLAT_ORDER_BY_ID = " order by o.id";
+
     private final EntityManager em;
+    private final OrderItemBatchLoader orderItemBatchLoader;
 
     public List<OrderQueryDto> findOrderQueryDtos() {
         List<OrderQueryDto> result = findOrders(); // query 1번 -> N개
@@ -59,18 +75,12 @@ public class OrderQueryRepository {
         return result;
     }
 
+    /**
+     * orderIds가 많으면 IN 절이 너무 길어지기 때문에 OrderItemBatchLoader에서 chunk 단위로 나눠서 조회한다.
+     */
     private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery(
-                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
-                                " from OrderItem oi" +
-                                " join oi.item i" +
-                                " where oi.order.id in :orderIds", OrderItemQueryDto.class
-                ).setParameter("orderIds", orderIds)
-                .getResultList();
-
         // Key가 Id
-        Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream().collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
-        return orderItemMap;
+        return orderItemBatchLoader.load(orderIds);
     }
 
     private static List<Long> toOrderIds(List<OrderQueryDto> result) {
@@ -79,13 +89,41 @@ public class OrderQueryRepository {
     }
 
     public List<OrderFlatDto> findAllByDto_flat() {
-        return em.createQuery(
-                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.username, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
-                        " from Order o" +
-                        " join o.member m" +
-                        " join o.delivery d" +
-                        " join o.orderItems oi" +
-                        " join oi.item i", OrderFlatDto.class
-        ).getResultList();
+        return em.createQuery(FLAT_QUERY, OrderFlatDto.class).getResultList();
+    }
+
+    /**
+     * OrderFlatAssembler로 한 번에 접을 수 있도록 o.id 순으로 정렬한 플랫 데이터
+     */
+    public List<OrderFlatDto> findAllByDto_flatOrderById() {
+        return em.createQuery(FLAT_QUERY + FLAT_ORDER_BY_ID, OrderFlatDto.class).getResultList();
+    }
+
+    /**
+     * 플랫 데이터를 스크롤로 한 row씩 읽어서 consumer에 넘긴다.
+     * getResultList()처럼 전체 결과를 메모리에 올리지 않기 때문에 row 수가 늘어나도 힙 사용량이 일정하다.
+     * DTO 조회라 영속성 컨텍스트에 쌓이지 않으므로 중간에 clear 할 필요가 없다.
+     * 스크롤하는 동안 커넥션을 잡고 있어야 하므로 트랜잭션 안에서 실행한다.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllByDto_flat(int fetchSize, Consumer<OrderFlatDto> consumer) {
+        scroll(FLAT_QUERY, fetchSize, consumer);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllByDto_flatOrderById(int fetchSize, Consumer<OrderFlatDto> consumer) {
+        scroll(FLAT_QUERY + FLAT_ORDER_BY_ID, fetchSize, consumer);
+    }
+
+    private void scroll(String jpql, int fetchSize, Consumer<OrderFlatDto> consumer) {
+        SelectionQuery<OrderFlatDto> query = em.unwrap(Session.class)
+                .createSelectionQuery(jpql, OrderFlatDto.class)
+                .setFetchSize(fetchSize);
+
+        try (ScrollableResults<OrderFlatDto> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                consumer.accept(results.get());
+            }
+        }
     }
 }
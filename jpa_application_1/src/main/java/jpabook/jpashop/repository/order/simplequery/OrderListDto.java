@@ -0,0 +1,33 @@
+package jpabook.jpashop.repository.order.simplequery;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 화면 한 줄 (대표상품 = 주문상품 중 id가 가장 작은 것)
+ */
+@Data
+public class OrderListDto {
+    private Long orderId;
+    private String username;
+    private String itemName;
+    private int orderPrice;
+    private int count;
+    private int totalPrice;
+    private OrderStatus status;
+    private LocalDateTime orderDate;
+
+    public OrderListDto(Long orderId, String username, String itemName, int orderPrice, int count,
+                        int totalPrice, OrderStatus status, LocalDateTime orderDate) {
+        this.orderId = orderId;
+        this.username = username;
+        this.itemName = itemName;
+        this.orderPrice = orderPrice;
+        this.count = count;
+        this.totalPrice = totalPrice;
+        this.status = status;
+        this.orderDate = orderDate;
+    }
+}
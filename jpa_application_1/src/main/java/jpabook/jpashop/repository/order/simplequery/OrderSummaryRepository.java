@@ -0,0 +1,57 @@
+package jpabook.jpashop.repository.order.simplequery;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 주문 요약 읽기 모델 저장소
+ * 쓰기(주문/취소/회원명 변경)는 서비스의 트랜잭션 안에서 호출되어야 한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    private final EntityManager em;
+
+    public void save(Order order) {
+        em.persist(OrderSummary.createOrderSummary(order));
+    }
+
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    public void updateStatus(Long orderId, OrderStatus status) {
+        OrderSummary summary = findOne(orderId);
+        if (summary != null) {
+            summary.changeStatus(status);
+        }
+    }
+
+    /**
+     * 회원 이름이 바뀌면 해당 회원의 주문 요약도 한 번에 변경한다.
+     */
+    public int updateUsername(Long memberId, String username) {
+        return em.createQuery("update OrderSummary s set s.username = :username where s.memberId = :memberId")
+                .setParameter("username", username)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    /**
+     * 조인 없이 order_summary 테이블 하나만 조회
+     */
+    public List<OrderSimpleQueryDto> findOrderDtos() {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(s.orderId, s.username, s.orderDate, s.status, s.address)" +
+                        " from OrderSummary s" +
+                        " order by s.orderId", OrderSimpleQueryDto.class)
+                .getResultList();
+    }
+}
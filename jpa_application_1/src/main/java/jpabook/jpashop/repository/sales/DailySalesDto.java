@@ -0,0 +1,20 @@
+package jpabook.jpashop.repository.sales;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class DailySalesDto {
+    private LocalDate salesDate;
+    private long orderCount;
+    private long quantity;
+    private long amount;
+
+    public DailySalesDto(LocalDate salesDate, long orderCount, long quantity, long amount) {
+        this.salesDate = salesDate;
+        this.orderCount = orderCount;
+        this.quantity = quantity;
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,20 @@
+package jpabook.jpashop.repository.sales;
+
+import lombok.Data;
+
+@Data
+public class ItemSalesDto {
+    private Long itemId;
+    private String itemName;
+    private long orderCount;
+    private long quantity;
+    private long amount;
+
+    public ItemSalesDto(Long itemId, String itemName, long orderCount, long quantity, long amount) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.orderCount = orderCount;
+        this.quantity = quantity;
+        this.amount = amount;
+    }
+}
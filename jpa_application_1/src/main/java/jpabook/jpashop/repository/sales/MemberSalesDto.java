@@ -0,0 +1,20 @@
+package jpabook.jpashop.repository.sales;
+
+import lombok.Data;
+
+@Data
+public class MemberSalesDto {
+    private Long memberId;
+    private String username;
+    private long orderCount;
+    private long quantity;
+    private long amount;
+
+    public MemberSalesDto(Long memberId, String username, long orderCount, long quantity, long amount) {
+        this.memberId = memberId;
+        this.username = username;
+        this.orderCount = orderCount;
+        this.quantity = quantity;
+        this.amount = amount;
+    }
+}
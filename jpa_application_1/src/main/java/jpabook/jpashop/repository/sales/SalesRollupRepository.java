@@ -0,0 +1,208 @@
+package jpabook.jpashop.repository.sales;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 매출 집계 테이블(daily_item_sales, daily_member_sales) 저장소
+ * 리포트는 order_item을 다시 집계하지 않고 집계 테이블만 읽는다.
+ * <p>
+ * 주문/취소 트랜잭션은 sales_delta에 (주문 id, sign)만 insert 하고,
+ * fold가 쌓인 delta의 order_item을 (주문일, 상품/회원) 별로 합산해서 MERGE 한 문장으로 반영한다.
+ * 다른 엔티티와 관계없는 테이블이므로 별도 query space를 지정해서 2차 캐시 region이 비워지지 않게 한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+
+    private static final String ROLLUP_QUERY_SPACE = "sales_rollup";
+
+    private static final String ITEM_SALES =
+            "select cast(o.order_date as date) sales_date, oi.item_id item_id," +
+                    " count(distinct o.order_id) order_count, sum(oi.count) quantity, sum(oi.order_price * oi.count) amount" +
+                    " from orders o join order_item oi on oi.order_id = o.order_id";
+
+    private static final String MEMBER_SALES =
+            "select cast(o.order_date as date) sales_date, o.member_id member_id," +
+                    " count(distinct o.order_id) order_count, sum(oi.count) quantity, sum(oi.order_price * oi.count) amount" +
+                    " from orders o join order_item oi on oi.order_id = o.order_id";
+
+    // 주문과 취소가 같이 있으면 상쇄된다.
+    private static final String SIGNED_SALES =
+            " count(distinct case when d.sign > 0 then d.delta_id end) - count(distinct case when d.sign < 0 then d.delta_id end) order_count," +
+                    " sum(d.sign * oi.count) quantity, sum(d.sign * oi.order_price * oi.count) amount" +
+                    " from sales_delta d" +
+                    " join orders o on o.order_id = d.order_id" +
+                    " join order_item oi on oi.order_id = o.order_id" +
+                    " where d.folding = :token";
+
+    private static final String ITEM_DELTA =
+            "select cast(o.order_date as date) sales_date, oi.item_id item_id," + SIGNED_SALES +
+                    " group by cast(o.order_date as date), oi.item_id";
+
+    private static final String MEMBER_DELTA =
+            "select cast(o.order_date as date) sales_date, o.member_id member_id," + SIGNED_SALES +
+                    " group by cast(o.order_date as date), o.member_id";
+
+    private final EntityManager em;
+
+    /**
+     * 주문(sign = 1) 또는 취소(sign = -1)를 sales_delta에 쌓는다. 집계 row는 건드리지 않는다.
+     * 아직 insert되지 않은 주문도 기록할 수 있도록 먼저 flush 한다.
+     */
+    public void record(List<Long> orderIds, int sign) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        em.flush(); // 별도 query space라 자동 flush가 되지 않는다.
+        nativeUpdate("insert into sales_delta (order_id, sign)" +
+                " select o.order_id, cast(:sign as integer) from orders o where o.order_id in (:orderIds)")
+                .setParameter("sign", sign)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    /**
+     * 커밋된 delta를 token으로 선점한다. 동시에 fold 하더라도 같은 delta를 두 번 반영하지 않는다.
+     *
+     * @return 선점한 delta 수
+     */
+    public int claimDeltas(String token) {
+        return nativeUpdate("update sales_delta set folding = :token where folding is null")
+                .setParameter("token", token)
+                .executeUpdate();
+    }
+
+    /**
+     * 선점한 delta를 집계에 반영하고 지운다.
+     */
+    public void foldClaimed(String token) {
+        nativeUpdate(merge("daily_item_sales", "item_id", ITEM_DELTA))
+                .setParameter("token", token)
+                .executeUpdate();
+        nativeUpdate(merge("daily_member_sales", "member_id", MEMBER_DELTA))
+                .setParameter("token", token)
+                .executeUpdate();
+        nativeUpdate("delete from sales_delta where folding = :token")
+                .setParameter("token", token)
+                .executeUpdate();
+    }
+
+    /**
+     * [from, to) 기간의 집계를 지우고 ORDER 상태 주문으로 다시 만든다. (backfill)
+     * 이 기간 주문의 아직 반영하지 않은 delta는 다시 만든 집계에 이미 포함되므로 지운다.
+     */
+    public void rebuild(LocalDate from, LocalDate to) {
+        nativeUpdate("delete from sales_delta where order_id in" +
+                " (select o.order_id from orders o where o.order_date >= :fromTime and o.order_date < :toTime)")
+                .setParameter("fromTime", from.atStartOfDay())
+                .setParameter("toTime", to.atStartOfDay())
+                .executeUpdate();
+        for (String table : new String[]{"daily_item_sales", "daily_member_sales"}) {
+            nativeUpdate("delete from " + table + " where sales_date >= :from and sales_date < :to")
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .executeUpdate();
+        }
+        String period = " where o.status = 'ORDER' and o.order_date >= :fromTime and o.order_date < :toTime";
+        nativeUpdate("insert into daily_item_sales (sales_date, item_id, order_count, quantity, amount) " +
+                ITEM_SALES + period + " group by cast(o.order_date as date), oi.item_id")
+                .setParameter("fromTime", from.atStartOfDay())
+                .setParameter("toTime", to.atStartOfDay())
+                .executeUpdate();
+        nativeUpdate("insert into daily_member_sales (sales_date, member_id, order_count, quantity, amount) " +
+                MEMBER_SALES + period + " group by cast(o.order_date as date), o.member_id")
+                .setParameter("fromTime", from.atStartOfDay())
+                .setParameter("toTime", to.atStartOfDay())
+                .executeUpdate();
+    }
+
+    /**
+     * 집계할 주문의 주문일 범위 [min, max] (주문이 없으면 null)
+     */
+    public LocalDateTime[] findOrderDateRange() {
+        Object[] range = em.createQuery("select min(o.orderDate), max(o.orderDate) from Order o", Object[].class)
+                .getSingleResult();
+        if (range[0] == null) {
+            return null;
+        }
+        return new LocalDateTime[]{(LocalDateTime) range[0], (LocalDateTime) range[1]};
+    }
+
+    /**
+     * [from, to] 기간 상품별 매출 (매출 큰 순)
+     */
+    public List<ItemSalesDto> findItemSales(LocalDate from, LocalDate to, int limit) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.sales.ItemSalesDto(s.itemId, i.name, sum(s.orderCount), sum(s.quantity), sum(s.amount))" +
+                                " from DailyItemSales s" +
+                                " join Item i on i.id = s.itemId" +
+                                " where s.salesDate between :from and :to" +
+                                " group by s.itemId, i.name" +
+                                " order by sum(s.amount) desc", ItemSalesDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * [from, to] 기간 회원별 구매 금액 (금액 큰 순)
+     */
+    public List<MemberSalesDto> findMemberSales(LocalDate from, LocalDate to, int limit) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.sales.MemberSalesDto(s.memberId, m.username, sum(s.orderCount), sum(s.quantity), sum(s.amount))" +
+                                " from DailyMemberSales s" +
+                                " join Member m on m.id = s.memberId" +
+                                " where s.salesDate between :from and :to" +
+                                " group by s.memberId, m.username" +
+                                " order by sum(s.amount) desc", MemberSalesDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * [from, to] 기간 일별 매출
+     * 주문 1건은 회원 1명이므로 주문 수는 회원별 집계를 합산한다.
+     */
+    public List<DailySalesDto> findDailySales(LocalDate from, LocalDate to) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.sales.DailySalesDto(s.salesDate, sum(s.orderCount), sum(s.quantity), sum(s.amount))" +
+                                " from DailyMemberSales s" +
+                                " where s.salesDate between :from and :to" +
+                                " group by s.salesDate" +
+                                " order by s.salesDate", DailySalesDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    /**
+     * (sales_date, key) 가 있으면 delta 만큼 더하고, 없으면 insert
+     */
+    private static String merge(String table, String key, String deltaQuery) {
+        return "merge into " + table + " t" +
+                " using (" + deltaQuery + ") d" +
+                " on t.sales_date = d.sales_date and t." + key + " = d." + key +
+                " when matched then update set" +
+                " t.order_count = t.order_count + d.order_count," +
+                " t.quantity = t.quantity + d.quantity," +
+                " t.amount = t.amount + d.amount" +
+                " when not matched then insert (sales_date, " + key + ", order_count, quantity, amount)" +
+                " values (d.sales_date, d." + key + ", d.order_count, d.quantity, d.amount)";
+    }
+
+    private NativeQuery<?> nativeUpdate(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(ROLLUP_QUERY_SPACE);
+    }
+}
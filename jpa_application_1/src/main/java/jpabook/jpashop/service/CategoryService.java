@@ -0,0 +1,85 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 카테고리 계층 서비스
+ * 트리 전체를 쿼리 2번(카테고리, category_item)으로 읽어서 불변 스냅샷으로 들고 있다.
+ * 카테고리가 변경되면 커밋 후에 새 스냅샷을 만들어서 volatile 필드를 교체한다. (읽는 쪽은 락 없이 조회)
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final ItemRepository itemRepository;
+
+    private volatile CategoryTree tree = CategoryTree.empty();
+
+    /**
+     * 조회와 교체를 한 번에 하나씩만 해서, 먼저 조회한 느린 reload가 나중에 만든 스냅샷을 덮어쓰지 않게 한다.
+     * (변경이 드물어서 reload끼리 기다리는 비용은 작다)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        tree = CategoryTree.of(categoryRepository.findAllNodes(), categoryRepository.findAllCategoryItemIds());
+    }
+
+    public CategoryTree getTree() {
+        return tree;
+    }
+
+    @Transactional
+    public Long createCategory(String name, Long parentId) {
+        Category category = new Category();
+        category.setName(name);
+        if (parentId != null) {
+            categoryRepository.findOne(parentId).addChildCategory(category);
+        }
+        categoryRepository.save(category);
+        reloadAfterCommit();
+        return category.getId();
+    }
+
+    @Transactional
+    public void addItem(Long categoryId, Long itemId) {
+        Category category = categoryRepository.findOne(categoryId);
+        category.getItems().add(itemRepository.findOne(itemId));
+        reloadAfterCommit();
+    }
+
+    /**
+     * 카테고리 X와 모든 하위 카테고리의 상품
+     * 상품 ID는 스냅샷에서 바로 구하고, 상품은 IN 쿼리 한 번으로 조회한다.
+     */
+    public List<Item> findItemsUnder(Long categoryId) {
+        Set<Long> itemIds = tree.getItemIdsUnder(categoryId);
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        return itemRepository.findAllById(itemIds);
+    }
+
+    private void reloadAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+}
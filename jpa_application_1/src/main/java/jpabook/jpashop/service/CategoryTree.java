@@ -0,0 +1,99 @@
+package jpabook.jpashop.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 카테고리 트리 스냅샷 (불변)
+ * 변경이 생기면 고치지 않고 새로 만들어서 통째로 교체한다.
+ */
+public class CategoryTree {
+
+    private final Map<Long, String> names;
+    private final Map<Long, List<Long>> children;
+    private final Map<Long, List<Long>> itemIds;
+
+    private CategoryTree(Map<Long, String> names, Map<Long, List<Long>> children, Map<Long, List<Long>> itemIds) {
+        this.names = names;
+        this.children = children;
+        this.itemIds = itemIds;
+    }
+
+    public static CategoryTree empty() {
+        return new CategoryTree(Map.of(), Map.of(), Map.of());
+    }
+
+    /**
+     * @param nodes           (categoryId, name, parentId)
+     * @param categoryItemIds (categoryId, itemId)
+     */
+    public static CategoryTree of(List<Object[]> nodes, List<Object[]> categoryItemIds) {
+        Map<Long, String> names = new HashMap<>();
+        Map<Long, List<Long>> children = new HashMap<>();
+        for (Object[] node : nodes) {
+            names.put((Long) node[0], (String) node[1]);
+            if (node[2] != null) {
+                children.computeIfAbsent((Long) node[2], k -> new ArrayList<>()).add((Long) node[0]);
+            }
+        }
+
+        Map<Long, List<Long>> itemIds = new HashMap<>();
+        for (Object[] row : categoryItemIds) {
+            itemIds.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]);
+        }
+
+        return new CategoryTree(Map.copyOf(names), copyOf(children), copyOf(itemIds));
+    }
+
+    public boolean contains(Long categoryId) {
+        return names.containsKey(categoryId);
+    }
+
+    public String getName(Long categoryId) {
+        return names.get(categoryId);
+    }
+
+    public List<Long> getChildIds(Long categoryId) {
+        return children.getOrDefault(categoryId, List.of());
+    }
+
+    /**
+     * categoryId 자신과 모든 하위 카테고리 ID
+     */
+    public List<Long> getDescendantIds(Long categoryId) {
+        List<Long> result = new ArrayList<>();
+        if (!contains(categoryId)) return result;
+
+        Deque<Long> stack = new ArrayDeque<>();
+        stack.push(categoryId);
+        while (!stack.isEmpty()) {
+            Long id = stack.pop();
+            result.add(id);
+            getChildIds(id).forEach(stack::push);
+        }
+        return result;
+    }
+
+    /**
+     * categoryId 와 하위 카테고리에 속한 상품 ID (중복 제거)
+     */
+    public Set<Long> getItemIdsUnder(Long categoryId) {
+        Set<Long> result = new LinkedHashSet<>();
+        for (Long id : getDescendantIds(categoryId)) {
+            result.addAll(itemIds.getOrDefault(id, List.of()));
+        }
+        return result;
+    }
+
+    private static Map<Long, List<Long>> copyOf(Map<Long, List<Long>> map) {
+        Map<Long, List<Long>> copy = new HashMap<>();
+        map.forEach((k, v) -> copy.put(k, List.copyOf(v)));
+        return Map.copyOf(copy);
+    }
+}
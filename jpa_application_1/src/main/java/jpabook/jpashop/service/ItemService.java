@@ -15,6 +15,7 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final StockService stockService;
 
     @Transactional
     public Long saveItem(Item item) {
@@ -22,12 +23,23 @@ public class ItemService {
         return item.getId();
     }
 
+    /**
+     * @param originalStockQuantity 수정 화면을 열었을 때의 재고 (null이면 지금 재고)
+     *                              재고는 stockQuantity - originalStockQuantity 만큼만 StockService로 증감한다.
+     *                              (그 사이의 주문 차감을 덮어쓰지 않고, stripe로 나눈 상품도 stripe에 반영)
+     * @param version               수정 화면을 열었을 때의 version (null이면 확인하지 않음)
+     *                              그 사이에 다른 수정으로 이름/가격이 바뀌었으면 화면의 값으로 덮어쓰지 않고 실패한다.
+     */
     @Transactional
-    public void updateItem(Long itemId, String name, int price, int stockQuantity) {
+    public void updateItem(Long itemId, String name, int price, int stockQuantity, Integer originalStockQuantity, Long version) {
         Item findItem = itemRepository.findOne(itemId);
+        if (version != null && findItem.getVersion() != version) {
+            throw new IllegalStateException("다른 곳에서 상품이 변경되었습니다. 다시 조회 후 수정해주세요.");
+        }
+        int baseStock = originalStockQuantity != null ? originalStockQuantity : stockService.availableStock(itemId);
         findItem.changePrice(price);
         findItem.changeName(name);
-        findItem.changeStockQuantity(stockQuantity);
+        stockService.adjust(itemId, stockQuantity - baseStock);
     }
 
     public List<Item> findItems() {
@@ -1,12 +1,18 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberNameBloomFilter;
+import jpabook.jpashop.repository.MemberNameIndex;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.TableVersion;
+import jpabook.jpashop.repository.order.simplequery.OrderSummaryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @Transactional(readOnly = true) // 기본적으로 public 메서드에 적용을 해주고 메서드에 따로 설정해주면 해당 설정값으로 적용되어짐
@@ -15,6 +21,9 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final MemberNameIndex memberNameIndex;
+    private final MemberNameBloomFilter memberNameBloomFilter;
 
     // 생성자가 1개인 경우에는 @Autowired 어노테이션을 빼도 된다.
     /*@Autowired
@@ -25,16 +34,24 @@ public class MemberService {
     // 회원 가입
     @Transactional
     public Long join(Member member) {
-        validateDuplicateMember(member);
-        memberRepository.save(member);
+        validateDuplicateMember(member.getUsername());
+        try {
+            memberRepository.saveAndFlush(member);
+        } catch (DataIntegrityViolationException e) { // 검사 이후 동시에 가입된 경우 (uk_member_username)
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        memberNameBloomFilter.add(member.getUsername());
+        memberNameIndex.add(member.getId(), member.getUsername());
         return member.getId();
     }
 
     /**
-     * 예제는 간단하게 중복된 회원을 검증하지만, 실무에서는 동시성 문제가 발생할 수 있기 때문에 해당 컬럼을 유니크 제약 조건을 걸어두는 것이 좋다.
+     * Bloom filter가 "확실히 없다"고 하면 DB 조회를 생략한다.
+     * 검사와 insert 사이의 동시 가입은 member.username 유니크 제약이 막는다.
      * **/
-    private void validateDuplicateMember(Member member) {
-        List<Member> findMembers = memberRepository.findByName(member.getUsername());
+    private void validateDuplicateMember(String username) {
+        if (!memberNameBloomFilter.mightContain(username)) return;
+        List<Member> findMembers = memberRepository.findByName(username);
         if (!findMembers.isEmpty()) throw new IllegalStateException("이미 존재하는 회원입니다.");
     }
 
@@ -43,6 +60,13 @@ public class MemberService {
         return memberRepository.findAll();
     }
 
+    /**
+     * 회원 목록 ETag (회원이 추가/수정/삭제되면 바뀐다)
+     */
+    public String findMembersETag() {
+        return TableVersion.etag("members", memberRepository.findTableVersion());
+    }
+
     public Member findOne(Long memberId) {
         return memberRepository.findOne(memberId);
     }
@@ -50,6 +74,17 @@ public class MemberService {
     @Transactional
     public void update(Long id, String name) {
         Member member = memberRepository.findOne(id);
+        if (!Objects.equals(name, member.getUsername())) {
+            validateDuplicateMember(name);
+            memberNameBloomFilter.add(name);
+        }
         member.setUsername(name);
+        try {
+            memberRepository.flush();
+        } catch (DataIntegrityViolationException e) { // 검사 이후 동시에 같은 이름으로 가입/변경된 경우 (uk_member_username)
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        orderSummaryRepository.updateUsername(id, name); // 주문 요약의 회원명도 함께 변경
+        memberNameIndex.rename(id, name);
     }
 }
@@ -0,0 +1,111 @@
+package jpabook.jpashop.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StaleStateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 낙관적 락(@Version) 충돌 시 작업을 새 트랜잭션에서 다시 실행한다.
+ * 비관적 락(select for update)처럼 읽는 동안 row를 잡고 있지 않으므로 충돌이 드문 대부분의 요청은 처리량 손해가 없다.
+ * - 재시도 간격 : 지수 증가 + full jitter (동시에 충돌한 요청들이 같은 시점에 다시 충돌하지 않도록)
+ * - 메트릭 : jpashop.optimistic-lock.retry, jpashop.optimistic-lock.abort (operation 태그)
+ * 작업은 매번 처음부터 다시 조회해야 하므로 트랜잭션 밖(컨트롤러 등)에서 호출한다.
+ * 이미 트랜잭션 안이면 영속성 컨텍스트를 버릴 수 없으므로 재시도 없이 한 번만 실행한다.
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${jpashop.optimistic-retry.max-attempts:3}") int maxAttempts,
+                                   @Value("${jpashop.optimistic-retry.base-delay-ms:10}") long baseDelayMillis,
+                                   @Value("${jpashop.optimistic-retry.max-delay-ms:200}") long maxDelayMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                if (!isOptimisticLockFailure(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    counter("jpashop.optimistic-lock.abort", operation).increment();
+                    log.warn("낙관적 락 충돌로 중단 operation={} attempts={}", operation, attempt);
+                    throw e;
+                }
+                counter("jpashop.optimistic-lock.retry", operation).increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable work) {
+        execute(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * 0 ~ min(maxDelay, baseDelay * 2^(attempt-1)) 사이의 임의 시간만큼 대기
+     */
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 인터럽트", e);
+        }
+    }
+
+    /**
+     * 커밋 시점(스프링 예외 변환), flush 시점(JPA), 하이버네이트 예외 중 어떤 형태로 와도 낙관적 락 충돌로 본다.
+     */
+    static boolean isOptimisticLockFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockingFailureException
+                    || t instanceof OptimisticLockException
+                    || t instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,81 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.OrderBulkRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 주문 일괄 취소
+ * cancelOrder처럼 주문마다 Order, Delivery, OrderItem, Item을 조회해서 변경 감지하지 않고
+ * chunk 단위로 배송 상태 확인, 재고 원복, 상태 변경을 각각 한 문장씩 실행한다.
+ * chunk마다 트랜잭션을 따로 커밋해서 lock을 잡고 있는 시간과 undo 크기를 제한한다.
+ */
+@Service
+public class OrderBulkCancelService {
+
+    private final OrderBulkRepository orderBulkRepository;
+    private final SalesRollupService salesRollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public OrderBulkCancelService(OrderBulkRepository orderBulkRepository,
+                                  SalesRollupService salesRollupService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${jpashop.bulk-cancel.chunk-size:500}") int chunkSize) {
+        this.orderBulkRepository = orderBulkRepository;
+        this.salesRollupService = salesRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 주문일시가 [from, to) 이고 ORDER 상태인 주문을 일괄 취소한다. (from, to는 null이면 제한 없음)
+     */
+    public BulkCancelResult cancelOrders(LocalDateTime from, LocalDateTime to) {
+        long skipped = orderBulkRepository.countDelivered(from, to); // + 처리 중에 배송 완료된 주문
+
+        int canceled = 0;
+        int chunks = 0;
+        Long lastId = 0L;
+        while (true) {
+            List<Long> orderIds = orderBulkRepository.findCancelableIds(from, to, lastId, chunkSize);
+            if (orderIds.isEmpty()) {
+                break;
+            }
+            lastId = orderIds.get(orderIds.size() - 1);
+
+            OrderBulkRepository.LockedOrders locked = transactionTemplate.execute(status -> cancelChunk(orderIds));
+            canceled += locked.getCancelableIds().size();
+            skipped += locked.getDeliveredCount();
+            chunks++;
+        }
+        return new BulkCancelResult(canceled, skipped, chunks);
+    }
+
+    private OrderBulkRepository.LockedOrders cancelChunk(List<Long> orderIds) {
+        OrderBulkRepository.LockedOrders locked = orderBulkRepository.lockOrdered(orderIds);
+        List<Long> cancelableIds = locked.getCancelableIds();
+        if (cancelableIds.isEmpty()) {
+            return locked;
+        }
+        orderBulkRepository.restoreStock(cancelableIds);
+        salesRollupService.record(cancelableIds, -1);
+        orderBulkRepository.cancel(cancelableIds);
+        return locked;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BulkCancelResult {
+        private int canceledCount; // 취소한 주문 수
+        private long skippedDeliveredCount; // 배송 완료라 취소하지 못한 주문 수
+        private int chunkCount;
+    }
+}
@@ -0,0 +1,30 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.order.simplequery.OrderListDto;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 주문 목록 한 페이지
+ * 전체 건수 없이 다음 페이지 여부와 다음 페이지를 조회할 위치(마지막 줄)만 가진다.
+ */
+@Getter
+public class OrderListPage {
+
+    private final List<OrderListDto> orders;
+    private final boolean hasNext;
+    private final Long nextAfterId;
+    private final Integer nextAfterTotalPrice;
+
+    /**
+     * @param rows size + 1 건까지 조회한 결과
+     */
+    public OrderListPage(List<OrderListDto> rows, int size) {
+        this.hasNext = rows.size() > size;
+        this.orders = hasNext ? rows.subList(0, size) : rows;
+        OrderListDto last = hasNext ? orders.get(size - 1) : null;
+        this.nextAfterId = last == null ? null : last.getOrderId();
+        this.nextAfterTotalPrice = last == null ? null : last.getTotalPrice();
+    }
+}
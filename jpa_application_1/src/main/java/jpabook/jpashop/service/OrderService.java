@@ -6,14 +6,21 @@ import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberNameIndex;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.simplequery.OrderSummaryRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,45 +30,118 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final StockService stockService;
+    private final MemberNameIndex memberNameIndex;
+    private final SalesRollupService salesRollupService;
+
+    // 이름 접두사에 해당하는 회원이 이보다 많으면 회원 ID IN 대신 member.username like 'prefix%' 조인으로 찾는다.
+    private static final int MAX_MEMBER_IDS = 1000;
 
     /**
-     * 주문
+     * 주문 (orderWithReservation과 같다)
      */
     @Transactional
     public Long order(Long memberId, Long itemId, int count) {
-        // 엔티티 조회
+        return orderWithReservation(memberId, itemId, count);
+    }
+
+    /**
+     * 장바구니 주문: 주문 1건에 여러 주문 상품
+     * 재고는 StockService로 상품마다 조건부 UPDATE로 차감한다.
+     * 상품은 IN 쿼리 한 번으로 조회하고, Order/Delivery/OrderItem insert는 flush 시점에 JDBC batch로 묶인다.
+     * (hibernate.jdbc.batch_size, order_inserts 설정 + 시퀀스 pooled 옵티마이저)
+     */
+    @Transactional
+    public Long checkout(Long memberId, List<OrderLine> lines) {
+        if (lines.isEmpty()) throw new IllegalArgumentException("주문 상품이 없습니다.");
+
         Member member = memberRepository.findOne(memberId);
-        Item item = itemRepository.findOne(itemId);
+        Map<Long, Item> items = itemRepository.findAllById(lines.stream().map(OrderLine::getItemId).collect(toSet()))
+                .stream()
+                .collect(toMap(Item::getId, item -> item));
+
+        OrderItem[] orderItems = lines.stream()
+                .map(line -> {
+                    Item item = items.get(line.getItemId());
+                    if (item == null) throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + line.getItemId());
+                    return OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+                })
+                .toArray(OrderItem[]::new);
+
+        // 같은 상품은 합산해서 상품 id 순서로 차감 (취소와 lock 순서가 같다)
+        stockService.reserveAll(lines.stream().collect(toMap(OrderLine::getItemId, OrderLine::getCount, Integer::sum)));
 
-        // 배송정보 생성
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
-        // 주문 상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        Order order = Order.createOrder(member, delivery, orderItems);
+        orderRepository.save(order);
+        orderSummaryRepository.save(order);
+        salesRollupService.record(List.of(order.getId()), 1);
+        return order.getId();
+    }
+
+    /**
+     * 주문 (재고 예약)
+     * 엔티티 변경 감지 대신 조건부 UPDATE로 재고를 차감해서 같은 상품에 동시에 주문이 들어와도 갱신 손실이 없다.
+     * stripe로 나눈 상품도 StockService가 stripe에서 차감한다.
+     */
+    @Transactional
+    public Long orderWithReservation(Long memberId, Long itemId, int count) {
+        Member member = memberRepository.findOne(memberId);
+        Item item = itemRepository.findOne(itemId);
+
+        stockService.reserve(itemId, count);
 
-        // 주문 생성
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), count);
         Order order = Order.createOrder(member, delivery, orderItem);
 
-        // 주문 저장
         orderRepository.save(order);
+        orderSummaryRepository.save(order);
+        salesRollupService.record(List.of(order.getId()), 1);
         return order.getId();
     }
 
-    /** 주문 취소 */
+    /** 주문 취소 (cancelReservedOrder와 같다) */
     @Transactional
     public void cancelOrder(Long orderId) {
-        // 주문 엔티티 조회
+        cancelReservedOrder(orderId);
+    }
+
+    /** 재고 예약으로 만든 주문 취소 */
+    @Transactional
+    public void cancelReservedOrder(Long orderId) {
         Order order = orderRepository.findOne(orderId);
-        // 주문 취소
-        order.cancel();
+        order.markCanceled();
+        // 장바구니 주문과 같은 순서(상품 id 순)로 반환
+        stockService.releaseAll(order.getOrderItems().stream()
+                .collect(toMap(orderItem -> orderItem.getItem().getId(), OrderItem::getCount, Integer::sum)));
+        orderSummaryRepository.updateStatus(orderId, order.getStatus());
+        salesRollupService.record(List.of(orderId), -1);
     }
 
     /**
-     * 주문 검색
+     * 주문 목록 화면 (size 건씩, 키셋 페이징)
+     * 다음 페이지 여부는 size + 1 건을 조회해서 판단하므로 count 쿼리가 없다.
      */
-    public List<Order> findOrders(OrderSearch orderSearch) {
-        return orderRepository.findAll(orderSearch);
+    public OrderListPage findOrderListPage(OrderSearch orderSearch, Long afterId, Integer afterTotalPrice, int size) {
+        if (size < 1) throw new IllegalArgumentException("size는 1 이상이어야 합니다.");
+
+        List<Long> memberIds = null;
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            memberIds = memberNameIndex.findIdsByPrefix(orderSearch.getMemberName(), MAX_MEMBER_IDS + 1);
+            if (memberIds.isEmpty()) {
+                return new OrderListPage(List.of(), size);
+            }
+            if (memberIds.size() > MAX_MEMBER_IDS) {
+                memberIds = null; // 잘라내지 않고 이름 접두사 조건으로 조회
+            }
+        }
+        return new OrderListPage(orderRepository.findOrderList(orderSearch, memberIds, afterId, afterTotalPrice, size + 1), size);
     }
 
 }
@@ -0,0 +1,199 @@
+package jpabook.jpashop.service;
+
+import jakarta.annotation.PreDestroy;
+import jpabook.jpashop.repository.sales.DailySalesDto;
+import jpabook.jpashop.repository.sales.ItemSalesDto;
+import jpabook.jpashop.repository.sales.MemberSalesDto;
+import jpabook.jpashop.repository.sales.SalesRollupRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 매출 집계 증감, backfill과 리포트 조회
+ * 주문/취소 트랜잭션은 record로 sales_delta에 insert만 하고, 커밋된 후에 fold 전용 스레드가 집계 row에 반영한다.
+ * 집계 row lock은 fold 트랜잭션에서만 잡으므로 주문 트랜잭션이 같은 상품/날짜의 집계 row에서 줄 서지 않고,
+ * 주문 요청 스레드는 fold를 기다리지 않는다.
+ */
+@Slf4j
+@Service
+public class SalesRollupService {
+
+    private static final int MAX_FOLD_ATTEMPTS = 3;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate foldTransactionTemplate;
+    private final int backfillChunkDays;
+
+    // fold는 이 스레드 하나에서만 실행한다. 이미 요청되어 대기 중이면 다시 넣지 않는다.
+    private final ScheduledExecutorService foldExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sales-rollup-fold");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean foldRequested = new AtomicBoolean();
+
+    public SalesRollupService(SalesRollupRepository salesRollupRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${jpashop.sales-rollup.backfill-chunk-days:7}") int backfillChunkDays,
+                              @Value("${jpashop.sales-rollup.fold-interval-ms:60000}") long foldIntervalMs) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.foldTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.foldTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.backfillChunkDays = backfillChunkDays;
+        // 실패했거나 다른 인스턴스가 남긴 delta도 주기적으로 반영
+        foldExecutor.scheduleWithFixedDelay(this::foldWithRetry, foldIntervalMs, foldIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        foldExecutor.shutdown();
+    }
+
+    /**
+     * 주문(sign = 1) 또는 취소(sign = -1)를 현재 트랜잭션에서 기록하고, 커밋된 후에 fold를 요청만 한다.
+     * 취소는 ORDER -> CANCEL 로 바뀐 주문에만 호출해야 한다.
+     */
+    @Transactional
+    public void record(List<Long> orderIds, int sign) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        salesRollupRepository.record(orderIds, sign);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestFold();
+            }
+        });
+    }
+
+    /**
+     * 쌓인 delta를 집계에 반영한다. (현재 트랜잭션이 있으면 그 안에서)
+     *
+     * @return 반영한 delta 수
+     */
+    @Transactional
+    public int fold() {
+        String token = UUID.randomUUID().toString();
+        int claimed = salesRollupRepository.claimDeltas(token);
+        if (claimed > 0) {
+            salesRollupRepository.foldClaimed(token);
+        }
+        return claimed;
+    }
+
+    /**
+     * fold 스레드에 fold를 요청한다. 요청이 실행되기 전에 들어온 요청은 하나로 합쳐진다.
+     */
+    private void requestFold() {
+        if (!foldRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            foldExecutor.execute(() -> {
+                foldRequested.set(false); // 이후 커밋은 다음 fold로 요청
+                foldWithRetry();
+            });
+        } catch (RejectedExecutionException e) { // 종료 중. delta는 남아 있으므로 다음 fold(또는 backfill)에서 반영
+            foldRequested.set(false);
+        }
+    }
+
+    /**
+     * 주문 트랜잭션과 별도 트랜잭션으로 fold 한다.
+     * 다른 인스턴스의 fold와 같은 (날짜, 상품/회원) row를 처음 insert 하다가 중복 키가 나면 다시 시도하고,
+     * 그래도 실패하면 delta가 남아 있으므로 다음 fold(또는 backfill)에서 반영된다.
+     */
+    private void foldWithRetry() {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                foldTransactionTemplate.execute(status -> fold());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_FOLD_ATTEMPTS) {
+                    log.warn("sales rollup fold failed attempts={}", attempt, e);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.warn("sales rollup fold failed", e); // 주문은 이미 커밋되었으므로 호출한 쪽으로 던지지 않는다.
+                return;
+            }
+        }
+    }
+
+    /**
+     * [from, to] 기간의 집계를 주문 테이블에서 다시 만든다. (from, to가 null이면 전체 주문 기간)
+     * 다른 기간의 delta는 먼저 fold 하고, 이 기간의 delta는 chunk마다 다시 만든 집계에 포함된다.
+     * backfillChunkDays 일씩 나눠서 chunk마다 트랜잭션을 커밋하므로 이력이 많아도 한 트랜잭션이 커지지 않는다.
+     * 실행 중인 날짜에 들어오는 주문은 chunk가 커밋된 후 다시 실행하면 맞춰진다.
+     */
+    public BackfillResult backfill(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            LocalDateTime[] range = salesRollupRepository.findOrderDateRange();
+            if (range == null) {
+                return new BackfillResult(null, null, 0);
+            }
+            if (from == null) from = range[0].toLocalDate();
+            if (to == null) to = range[1].toLocalDate();
+        }
+
+        transactionTemplate.execute(status -> fold());
+
+        int chunks = 0;
+        LocalDate end = to.plusDays(1);
+        LocalDate chunkFrom = from;
+        while (chunkFrom.isBefore(end)) {
+            LocalDate chunkStart = chunkFrom;
+            LocalDate chunkEnd = chunkFrom.plusDays(backfillChunkDays).isBefore(end) ? chunkFrom.plusDays(backfillChunkDays) : end;
+            transactionTemplate.executeWithoutResult(status -> salesRollupRepository.rebuild(chunkStart, chunkEnd));
+            chunkFrom = chunkEnd;
+            chunks++;
+        }
+        return new BackfillResult(from, to, chunks);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ItemSalesDto> findItemSales(LocalDate from, LocalDate to, int limit) {
+        return salesRollupRepository.findItemSales(from, to, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MemberSalesDto> findMemberSales(LocalDate from, LocalDate to, int limit) {
+        return salesRollupRepository.findMemberSales(from, to, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailySalesDto> findDailySales(LocalDate from, LocalDate to) {
+        return salesRollupRepository.findDailySales(from, to);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class BackfillResult {
+        private LocalDate from;
+        private LocalDate to;
+        private int chunkCount;
+    }
+}
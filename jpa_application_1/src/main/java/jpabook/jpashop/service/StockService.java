@@ -0,0 +1,195 @@
+package jpabook.jpashop.service;
+
+import jakarta.annotation.PostConstruct;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.ItemStockStripe;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemStockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * 재고 예약(차감)/반환
+ * Item.removeStock 같은 변경 감지는 동시에 같은 상품을 주문하면 갱신 손실이 발생하므로 재고는 엔티티 UPDATE에서 제외했다.
+ * 여기서는 조건부 UPDATE로 재고를 차감하고, 주문이 몰리는 상품은 재고를 여러 stripe row로 나눠서 분산시킨다.
+ * 상품의 재고 = item.stock_quantity + 모든 stripe의 quantity 이므로 재고를 읽고 쓰는 곳은 모두 여기를 거친다.
+ * <p>
+ * stripeCounts는 빠른 경로(stripe 하나에서 차감)를 위한 캐시일 뿐이다.
+ * 다른 인스턴스에서 만든 stripe를 모르더라도 한 row로 모자라면 DB의 모든 row를 잠그고 확인하므로 결과는 정확하고,
+ * 그때 발견한 stripe를 캐시에 반영한다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class StockService {
+
+    private final ItemStockRepository itemStockRepository;
+
+    // stripe로 나눈 상품 (key: itemId, value: stripe 개수)
+    private final Map<Long, Integer> stripeCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadStripes() {
+        stripeCounts.putAll(itemStockRepository.findStripeCounts());
+    }
+
+    /**
+     * 재고 예약
+     * stripe 상품은 임의의 stripe부터 차례로 시도하고, 다음으로 상품 row에서 차감을 시도한다.
+     * 어느 한 row로도 모자라면 모든 row를 잠그고 합계로 확인해서 여러 row에서 나눠서 차감한다.
+     */
+    @Transactional
+    public void reserve(Long itemId, int quantity) {
+        if (quantity <= 0) throw new IllegalArgumentException("수량은 1 이상이어야 합니다.");
+
+        Integer stripes = stripeCounts.get(itemId);
+        if (stripes != null) {
+            int start = ThreadLocalRandom.current().nextInt(stripes);
+            for (int i = 0; i < stripes; i++) {
+                if (itemStockRepository.decreaseStripe(itemId, (start + i) % stripes, quantity) == 1) {
+                    return;
+                }
+            }
+        }
+
+        if (itemStockRepository.decrease(itemId, quantity) == 1) {
+            return;
+        }
+        reserveAcrossRows(itemId, quantity);
+    }
+
+    /**
+     * 상품 row -> stripe 순서로 잠그고, 합계가 충분하면 앞에서부터 차감한다.
+     * 드문 경우라 잠금 범위가 넓어도 괜찮다.
+     */
+    private void reserveAcrossRows(Long itemId, int quantity) {
+        int itemStock = itemStockRepository.lockItemStock(itemId);
+        Map<Integer, Integer> stripes = itemStockRepository.lockStripes(itemId);
+        if (!stripes.isEmpty()) {
+            stripeCounts.put(itemId, stripes.size()); // 이미 커밋된 stripe
+        }
+
+        int total = itemStock + stripes.values().stream().mapToInt(Integer::intValue).sum();
+        if (total < quantity) {
+            throw new NotEnoughStockException("need more stock");
+        }
+
+        int remaining = quantity;
+        int take = Math.min(remaining, itemStock);
+        if (take > 0) {
+            itemStockRepository.decrease(itemId, take);
+            remaining -= take;
+        }
+        for (Map.Entry<Integer, Integer> stripe : stripes.entrySet()) {
+            if (remaining == 0) break;
+            take = Math.min(remaining, stripe.getValue());
+            if (take > 0) {
+                itemStockRepository.decreaseStripe(itemId, stripe.getKey(), take);
+                remaining -= take;
+            }
+        }
+    }
+
+    /**
+     * 여러 상품 재고 예약 (장바구니 주문)
+     * 같은 상품은 합산해서 한 번만 예약하고, 상품 id 순서로 잠가서 동시에 예약/반환하는 트랜잭션끼리 lock 순서가 엇갈리지 않게 한다.
+     *
+     * @param quantities key: itemId, value: 상품별로 합산한 수량
+     */
+    @Transactional
+    public void reserveAll(Map<Long, Integer> quantities) {
+        new TreeMap<>(quantities).forEach(this::reserve);
+    }
+
+    /**
+     * 여러 상품 재고 반환 (주문 취소), 순서는 reserveAll과 같다.
+     */
+    @Transactional
+    public void releaseAll(Map<Long, Integer> quantities) {
+        new TreeMap<>(quantities).forEach(this::release);
+    }
+
+    /**
+     * 재고 반환(주문 취소)
+     * stripe 상품은 임의의 stripe에 돌려줘서 다시 여러 row로 분산되게 한다.
+     */
+    @Transactional
+    public void release(Long itemId, int quantity) {
+        Integer stripes = stripeCounts.get(itemId);
+        if (stripes != null
+                && itemStockRepository.increaseStripe(itemId, ThreadLocalRandom.current().nextInt(stripes), quantity) == 1) {
+            return;
+        }
+        itemStockRepository.increase(itemId, quantity); // stripe가 아니거나 캐시와 DB가 다르면 상품 row에 반환
+    }
+
+    /**
+     * 재고를 delta 만큼 늘리거나 줄인다. (관리자 수정)
+     * 절대값으로 덮어쓰지 않으므로 그 사이에 들어온 주문의 차감이 사라지지 않는다.
+     */
+    @Transactional
+    public void adjust(Long itemId, int delta) {
+        if (delta > 0) {
+            release(itemId, delta);
+        } else if (delta < 0) {
+            reserve(itemId, -delta);
+        }
+    }
+
+    /**
+     * 주문이 몰리는 상품의 현재 재고를 stripes 개의 row로 나눈다.
+     * 상품 row의 재고는 0이 되고 나머지는 앞쪽 stripe부터 1개씩 더 배분한다.
+     */
+    @Transactional
+    public void stripe(Long itemId, int stripes) {
+        if (stripes < 2) throw new IllegalArgumentException("stripe는 2개 이상이어야 합니다.");
+
+        int stock = itemStockRepository.lockItemStock(itemId);
+        if (!itemStockRepository.lockStripes(itemId).isEmpty()) {
+            throw new IllegalStateException("이미 stripe로 나눠진 상품입니다.");
+        }
+        if (stock > 0) {
+            itemStockRepository.decrease(itemId, stock);
+        }
+
+        for (int stripeNo = 0; stripeNo < stripes; stripeNo++) {
+            int quantity = stock / stripes + (stripeNo < stock % stripes ? 1 : 0);
+            itemStockRepository.saveStripe(ItemStockStripe.createStripe(itemId, stripeNo, quantity));
+        }
+        // 롤백되면 stripe row가 없으므로 커밋된 후에 등록
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stripeCounts.put(itemId, stripes);
+            }
+        });
+    }
+
+    /**
+     * 상품 row 재고 + stripe 재고
+     * 조건부 UPDATE 이후에도 맞도록 영속성 컨텍스트의 Item이 아니라 DB 값을 읽는다.
+     */
+    public int availableStock(Long itemId) {
+        return itemStockRepository.findItemStock(itemId) + itemStockRepository.sumStripeQuantity(itemId);
+    }
+
+    /**
+     * 상품 목록 화면용 재고 (key: itemId)
+     */
+    public Map<Long, Integer> availableStocks(List<Item> items) {
+        Map<Long, Integer> stripeStocks = itemStockRepository.sumStripeQuantities(items.stream().map(Item::getId).toList());
+        return items.stream().collect(toMap(Item::getId,
+                item -> item.getStockQuantity() + stripeStocks.getOrDefault(item.getId(), 0)));
+    }
+}
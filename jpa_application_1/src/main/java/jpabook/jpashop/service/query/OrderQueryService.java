@@ -1,7 +1,10 @@
 package jpabook.jpashop.service.query;
 
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.TableVersion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,11 +19,23 @@ import static java.util.stream.Collectors.toList;
 public class OrderQueryService {
 
     private final OrderRepository orderRepository;
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
 
     public List<OrderDto> ordersV3() {
         List<Order> orders = orderRepository.findAllWithItem();
         return orders.stream().map(o -> new OrderDto(o)).collect(toList());
     }
 
+    /**
+     * 주문 조회 API(V4~V6) 결과의 ETag
+     * 주문 상태 외에 회원 이름, 상품 이름도 응답에 포함되므로 회원/상품 테이블의 변경도 함께 본다.
+     * (응답에 재고는 없으므로 재고만 바뀐 경우에는 ETag가 바뀌지 않는다)
+     */
+    public String findOrdersETag() {
+        return TableVersion.etag("orders", orderRepository.findTableVersion(), memberRepository.findTableVersion(),
+                itemRepository.findTableVersion());
+    }
+
 }
 
@@ -0,0 +1,48 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OrderJsonModuleTest {
+
+    ObjectMapper reflective = Jackson2ObjectMapperBuilder.json().build();
+    ObjectMapper specialized = Jackson2ObjectMapperBuilder.json().modulesToInstall(new OrderJsonModule()).build();
+
+    @Test
+    public void 기본_직렬화와_같은_JSON() throws Exception {
+        LocalDateTime orderDate = LocalDateTime.of(2024, 1, 2, 3, 4, 0);
+        Address address = new Address("서울", "\"한강\"", "12345");
+
+        OrderQueryDto queryDto = new OrderQueryDto(1L, "userA", orderDate, OrderStatus.ORDER, address,
+                List.of(new OrderItemQueryDto(1L, "JPA1 BOOK", 10000, 2), new OrderItemQueryDto(1L, null, 20000, 1)));
+        OrderQueryDto emptyDto = new OrderQueryDto(2L, null, null, null, null);
+        OrderFlatDto flatDto = new OrderFlatDto(1L, "userA", orderDate, OrderStatus.CANCEL, address, "JPA1 BOOK", 10000, 2);
+
+        Member member = new Member();
+        member.setUsername("userB");
+        Delivery delivery = new Delivery();
+        delivery.setAddress(address);
+        Book book = Book.createBook("SPRING1 BOOK", 20000, 10, "", "");
+        OrderApiController.OrderDto orderDto = new OrderApiController.OrderDto(
+                Order.createOrder(member, delivery, OrderItem.createOrderItem(book, 20000, 3)));
+
+        for (Object value : List.of(queryDto, emptyDto, flatDto, orderDto, List.of(queryDto, emptyDto))) {
+            Assert.assertEquals(reflective.writeValueAsString(value), specialized.writeValueAsString(value));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.monitoring.QueryBudget;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class OrderSimpleApiControllerTest {
+
+    @Autowired
+    OrderSimpleApiController orderSimpleApiController;
+
+    @Test
+    public void 페치조인_쿼리예산() throws Exception {
+        Assert.assertFalse(QueryBudget.assertAtMost(1, () -> orderSimpleApiController.ordersV3()).isEmpty());
+    }
+
+    @Test
+    public void 지연로딩_N플러스1_검출() throws Exception {
+        // initDb 주문 2건 : 주문 1번 + 주문마다 member, delivery 조회
+        Assert.assertThrows(AssertionError.class,
+                () -> QueryBudget.assertNoNPlusOne(2, () -> orderSimpleApiController.ordersV2()));
+    }
+}
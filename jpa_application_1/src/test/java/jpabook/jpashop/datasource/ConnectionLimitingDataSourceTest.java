@@ -0,0 +1,38 @@
+package jpabook.jpashop.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+public class ConnectionLimitingDataSourceTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(
+            new DriverManagerDataSource("jdbc:h2:mem:limiter-test", "sa", ""), 1, 0, 10, meterRegistry);
+
+    @Test
+    public void 허용수를_넘으면_대기없이_실패() throws Exception {
+        //given
+        Connection first = dataSource.getConnection();
+
+        //when
+        try {
+            dataSource.getConnection();
+            Assert.fail("대기 가능 수(0)를 넘었으므로 예외가 발생해야 한다.");
+        } catch (SQLTransientConnectionException e) {
+            //then
+            Assert.assertEquals(1.0, meterRegistry.get("jpashop.jdbc.limiter.rejected").counter().count(), 0);
+        }
+        first.close();
+        first.close(); // 두 번 close 해도 한 번만 반납
+
+        try (Connection second = dataSource.getConnection()) {
+            Assert.assertFalse(second.isClosed());
+        }
+        Assert.assertEquals(1.0, meterRegistry.get("jpashop.jdbc.limiter.available").gauge().value(), 0);
+    }
+}
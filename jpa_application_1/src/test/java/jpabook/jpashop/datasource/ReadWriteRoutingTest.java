@@ -0,0 +1,108 @@
+package jpabook.jpashop.datasource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+/**
+ * 메모리 H2 2개를 primary, replica로 사용
+ * replica에만 replica_lag 테이블이 있으므로 그 테이블이 보이는지로 어느 쪽 커넥션인지 구분한다.
+ * (애플리케이션 시작 시점에는 replica_lag가 없어서 lag 확인이 실패하므로 스키마가 없는 replica 대신 primary를 사용한다.)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "jpashop.datasource.replica.urls=" + ReadWriteRoutingTest.REPLICA_URL,
+        "jpashop.datasource.replica.lag-query=select lag_ms from replica_lag",
+        "jpashop.datasource.replica.max-lag-ms=1000",
+        "jpashop.datasource.replica.lag-check-interval-ms=0"
+})
+public class ReadWriteRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-routing-test;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Before
+    public void setUp() throws Exception {
+        executeOnReplica("create table if not exists replica_lag (lag_ms bigint)",
+                "delete from replica_lag",
+                "insert into replica_lag values (0)");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executeOnReplica("drop table if exists replica_lag");
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_replica() throws Exception {
+        Assert.assertTrue("읽기 전용 트랜잭션은 replica를 사용한다.", isReplica(true));
+        Assert.assertFalse("쓰기 트랜잭션은 primary를 사용한다.", isReplica(false));
+    }
+
+    @Test
+    public void 복제지연이_크면_primary() throws Exception {
+        //given
+        executeOnReplica("update replica_lag set lag_ms = 5000");
+
+        //then
+        Assert.assertFalse("max-lag-ms 보다 지연된 replica는 사용하지 않는다.", isReplica(true));
+    }
+
+    /**
+     * OSIV처럼 요청 내내 같은 EntityManager를 쓰더라도 트랜잭션마다 커넥션을 다시 고른다.
+     */
+    @Test
+    public void 같은_EntityManager에서_트랜잭션마다_라우팅() throws Exception {
+        EntityManager requestEm = emf.createEntityManager();
+        TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(requestEm));
+        try {
+            Assert.assertTrue("읽기 전용 트랜잭션은 replica를 사용한다.", isReplica(true));
+            Assert.assertFalse("다음 쓰기 트랜잭션은 replica 커넥션을 이어서 쓰지 않는다.", isReplica(false));
+            Assert.assertTrue("쓰기 트랜잭션 다음의 읽기 전용 트랜잭션은 다시 replica를 사용한다.", isReplica(true));
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            requestEm.close();
+        }
+    }
+
+    private boolean isReplica(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        Number count = tx.execute(status -> (Number) em.createNativeQuery(
+                        "select count(*) from information_schema.tables where table_name = 'REPLICA_LAG'")
+                .getSingleResult());
+        return count.intValue() == 1;
+    }
+
+    private static void executeOnReplica(String... sqls) throws Exception {
+        try (Connection conn = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement stmt = conn.createStatement()) {
+            for (String sql : sqls) {
+                stmt.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package jpabook.jpashop.repository;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MemberNameBloomFilterTest {
+
+    @Test
+    public void 넣은_이름은_항상_있고_없는_이름은_대부분_없음() throws Exception {
+        //given
+        MemberNameBloomFilter.Bits bits = new MemberNameBloomFilter.Bits(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bits.put("user" + i);
+        }
+
+        //when
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (bits.mightContain("other" + i)) falsePositives++;
+        }
+
+        //then
+        for (int i = 0; i < 10_000; i++) {
+            Assert.assertTrue("false negative는 없어야 한다.", bits.mightContain("user" + i));
+        }
+        Assert.assertTrue("오탐률이 설정값(1%) 근처여야 한다. " + falsePositives, falsePositives < 300);
+    }
+
+    @Test
+    public void rebuild_전에는_항상_조회() throws Exception {
+        MemberNameBloomFilter filter = new MemberNameBloomFilter(null, true, 100);
+        filter.add("park");
+        Assert.assertTrue(filter.mightContain("kim"));
+    }
+}
@@ -0,0 +1,26 @@
+package jpabook.jpashop.repository;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class MemberNameIndexTest {
+
+    @Test
+    public void 이름_접두사로_회원ID_조회() throws Exception {
+        //given
+        MemberNameIndex index = new MemberNameIndex(null);
+        index.add(1L, "park");
+        index.add(2L, "parker");
+        index.add(3L, "kim");
+
+        //when
+        index.rename(2L, "lee");
+
+        //then
+        Assert.assertEquals(List.of(1L), index.findIdsByPrefix("par", 10));
+        Assert.assertEquals(List.of(2L), index.findIdsByPrefix("le", 10));
+        Assert.assertTrue(index.findIdsByPrefix("choi", 10).isEmpty());
+    }
+}
@@ -0,0 +1,92 @@
+package jpabook.jpashop.repository;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.OrderService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class OrderSearchEngineTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderSearchEngine orderSearchEngine;
+
+    @Test
+    public void 모든_조건_조합이_findAll과_같다() throws Exception {
+        //given
+        Member kim = createMember("searchKim");
+        Member lee = createMember("searchLee");
+        Book book = Book.createBook("JPA", 10000, 100, "", "");
+        em.persist(book);
+        orderService.order(kim.getId(), book.getId(), 1);
+        orderService.order(kim.getId(), book.getId(), 5);
+        orderService.order(lee.getId(), book.getId(), 3);
+        orderService.cancelOrder(orderService.order(lee.getId(), book.getId(), 2));
+        em.flush();
+        em.clear();
+
+        //when, then
+        for (OrderStatus status : Arrays.asList(null, OrderStatus.ORDER, OrderStatus.CANCEL)) {
+            for (String name : Arrays.asList(null, "searchKim", "search%")) {
+                for (Integer min : Arrays.asList(null, 20000)) {
+                    for (Integer max : Arrays.asList(null, 40000)) {
+                        for (boolean sort : new boolean[]{false, true}) {
+                            OrderSearch orderSearch = new OrderSearch();
+                            orderSearch.setOrderStatus(status);
+                            orderSearch.setMemberName(name);
+                            orderSearch.setMinTotalPrice(min);
+                            orderSearch.setMaxTotalPrice(max);
+                            orderSearch.setSortByTotalPrice(sort);
+
+                            List<Long> expected = ids(orderRepository.findAll(orderSearch));
+                            List<Long> actual = ids(orderSearchEngine.search(orderSearch));
+                            String combination = status + "/" + name + "/" + min + "/" + max + "/" + sort;
+                            if (sort) {
+                                Assert.assertEquals(combination, expected, actual);
+                            } else {
+                                Assert.assertEquals(combination, new HashSet<>(expected), new HashSet<>(actual));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).toList();
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setUsername(name);
+        member.setAddress(new Address("서울", "한강", "12345"));
+        em.persist(member);
+        return member;
+    }
+}
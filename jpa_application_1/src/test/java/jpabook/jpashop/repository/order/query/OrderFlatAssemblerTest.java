@@ -0,0 +1,35 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OrderFlatAssemblerTest {
+
+    @Test
+    public void 연속된_row를_주문별로_접기() throws Exception {
+        //given
+        List<OrderFlatDto> flats = List.of(
+                flat(1L, "JPA1", 10000, 1),
+                flat(1L, "JPA2", 20000, 2),
+                flat(2L, "SPRING1", 20000, 3));
+
+        //when
+        List<OrderQueryDto> result = OrderFlatAssembler.assemble(flats);
+
+        //then
+        Assert.assertEquals("주문 수", 2, result.size());
+        Assert.assertEquals("정렬 순서 유지", Long.valueOf(1L), result.get(0).getOrderId());
+        Assert.assertEquals("첫 주문의 상품 수", 2, result.get(0).getOrderItems().size());
+        Assert.assertEquals("두번째 주문의 상품", "SPRING1", result.get(1).getOrderItems().get(0).getItemName());
+    }
+
+    private OrderFlatDto flat(Long orderId, String itemName, int orderPrice, int count) {
+        return new OrderFlatDto(orderId, "userA", LocalDateTime.now(), OrderStatus.ORDER,
+                new Address("서울", "길거리", "54321"), itemName, orderPrice, count);
+    }
+}
@@ -0,0 +1,24 @@
+package jpabook.jpashop.repository.order.query;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+public class OrderItemBatchLoaderTest {
+
+    @Test
+    public void chunk_크기로_나누기() throws Exception {
+        //given
+        List<Long> ids = LongStream.rangeClosed(1, 11).boxed().toList();
+
+        //when
+        List<List<Long>> chunks = OrderItemBatchLoader.chunk(ids, 8);
+
+        //then
+        Assert.assertEquals("chunk 개수", 2, chunks.size());
+        Assert.assertEquals("첫 chunk는 chunkSize 그대로", 8, chunks.get(0).size());
+        Assert.assertEquals("남은 3개", List.of(9L, 10L, 11L), chunks.get(1));
+    }
+}
@@ -0,0 +1,34 @@
+package jpabook.jpashop.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class CategoryTreeTest {
+
+    @Test
+    public void 하위_카테고리_상품까지_조회() throws Exception {
+        //given
+        // 1 도서 -> 2 IT -> 3 JPA, 1 도서 -> 4 소설
+        List<Object[]> nodes = List.of(
+                new Object[]{1L, "도서", null},
+                new Object[]{2L, "IT", 1L},
+                new Object[]{3L, "JPA", 2L},
+                new Object[]{4L, "소설", 1L});
+        List<Object[]> categoryItems = List.of(
+                new Object[]{2L, 100L},
+                new Object[]{3L, 101L},
+                new Object[]{3L, 100L},
+                new Object[]{4L, 200L});
+
+        //when
+        CategoryTree tree = CategoryTree.of(nodes, categoryItems);
+
+        //then
+        Assert.assertEquals(Set.of(100L, 101L), tree.getItemIdsUnder(2L));
+        Assert.assertEquals(Set.of(100L, 101L, 200L), tree.getItemIdsUnder(1L));
+        Assert.assertTrue("없는 카테고리", tree.getItemIdsUnder(99L).isEmpty());
+    }
+}
@@ -1,5 +1,6 @@
 package jpabook.jpashop.service;
 
+import jakarta.persistence.EntityManager;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
@@ -22,6 +23,12 @@ public class ItemServiceTest {
     @Autowired
     ItemRepository itemRepository;
 
+    @Autowired
+    StockService stockService;
+
+    @Autowired
+    EntityManager em;
+
     @Test
     public void 상품등록() throws Exception {
         //given
@@ -33,4 +40,24 @@ public class ItemServiceTest {
         //then
         Assert.assertEquals(item, itemRepository.findOne(savedId));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void 재고변경후_상품수정() throws Exception {
+        //given
+        Long itemId = itemService.saveItem(Book.createBook("JPA", 10000, 10, "김영한", "12345"));
+        em.flush();
+        long version = itemService.findOne(itemId).getVersion();
+
+        //when : 수정 화면을 연 뒤에 주문이 재고를 차감
+        stockService.reserve(itemId, 3);
+        itemService.updateItem(itemId, "JPA2", 20000, 12, 10, version);
+        em.flush();
+        em.clear();
+
+        //then
+        Item item = itemService.findOne(itemId);
+        Assert.assertEquals("재고 변경은 version을 증가시키지 않아 수정이 성공해야 한다.", "JPA2", item.getName());
+        Assert.assertEquals(20000, item.getPrice());
+        Assert.assertEquals("주문 차감을 덮어쓰지 않고 수정한 만큼만 증가해야 한다.", 9, stockService.availableStock(itemId));
+    }
+}
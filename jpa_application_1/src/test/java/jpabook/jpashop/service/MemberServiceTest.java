@@ -64,4 +64,41 @@ public class MemberServiceTest {
         fail("예외가 발생해야 한다.");
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void 이름변경_중복_예외() throws Exception {
+        //given
+        Member member1 = new Member();
+        member1.setUsername("park");
+        Member member2 = new Member();
+        member2.setUsername("lee");
+        memberService.join(member1);
+        memberService.join(member2);
+
+        //when
+        memberService.update(member2.getId(), "park"); // 예외 발생
+
+        //then
+        fail("예외가 발생해야 한다.");
+    }
+
+    @Test
+    public void 회원목록_ETag_변경감지() throws Exception {
+        //given
+        Member member = new Member();
+        member.setUsername("kim");
+        Long memberId = memberService.join(member);
+        em.flush();
+        String etag = memberService.findMembersETag();
+
+        //when
+        String unchanged = memberService.findMembersETag();
+        memberService.update(memberId, "lee");
+        em.flush();
+        String changed = memberService.findMembersETag();
+
+        //then
+        Assert.assertEquals("변경이 없으면 ETag가 같다.", etag, unchanged);
+        Assert.assertNotEquals("회원 이름이 바뀌면 ETag가 바뀐다.", etag, changed);
+    }
+
 }
\ No newline at end of file
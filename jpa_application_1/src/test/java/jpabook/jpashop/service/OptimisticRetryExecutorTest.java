@@ -0,0 +1,82 @@
+package jpabook.jpashop.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OptimisticRetryExecutorTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    OptimisticRetryExecutor executor = new OptimisticRetryExecutor(new NoOpTransactionManager(), meterRegistry, 3, 1, 5);
+
+    @Test
+    public void 충돌하면_재시도() throws Exception {
+        //given
+        AtomicInteger calls = new AtomicInteger();
+
+        //when
+        String result = executor.execute("test", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Item", 1L);
+            }
+            return "ok";
+        });
+
+        //then
+        Assert.assertEquals("ok", result);
+        Assert.assertEquals(3, calls.get());
+        Assert.assertEquals(2.0, meterRegistry.counter("jpashop.optimistic-lock.retry", "operation", "test").count(), 0);
+    }
+
+    @Test
+    public void 최대_시도_횟수를_넘으면_중단() throws Exception {
+        //given
+        AtomicInteger calls = new AtomicInteger();
+
+        //when
+        try {
+            executor.run("test", () -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException(new OptimisticLockException());
+            });
+            Assert.fail("낙관적 락 예외가 발생해야 한다.");
+        } catch (IllegalStateException e) {
+            //then
+            Assert.assertEquals(3, calls.get());
+            Assert.assertEquals(1.0, meterRegistry.counter("jpashop.optimistic-lock.abort", "operation", "test").count(), 0);
+        }
+    }
+
+    @Test
+    public void 낙관적_락이_아닌_예외는_재시도하지_않는다() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Assert.assertThrows(IllegalArgumentException.class, () -> executor.run("test", () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException();
+        }));
+        Assert.assertEquals(1, calls.get());
+    }
+
+    static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
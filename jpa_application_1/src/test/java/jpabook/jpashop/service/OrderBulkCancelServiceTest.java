@@ -0,0 +1,93 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.OrderBulkRepository;
+import jpabook.jpashop.repository.OrderBulkRepository.LockedOrders;
+import jpabook.jpashop.service.OrderBulkCancelService.BulkCancelResult;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class OrderBulkCancelServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderBulkCancelService orderBulkCancelService;
+
+    @Autowired
+    OrderBulkRepository orderBulkRepository;
+
+    @Test
+    public void 주문일괄취소() throws Exception {
+        //given
+        LocalDateTime from = LocalDateTime.now();
+        Member member = new Member();
+        member.setUsername("member1");
+        member.setAddress(new Address("서울", "한강", "12345"));
+        em.persist(member);
+        Book book = Book.createBook("육각형 개발자", 10000, 10, "", "");
+        em.persist(book);
+
+        Long orderId1 = orderService.order(member.getId(), book.getId(), 2);
+        Long orderId2 = orderService.order(member.getId(), book.getId(), 3);
+        Long deliveredId = orderService.order(member.getId(), book.getId(), 1);
+        em.find(Order.class, deliveredId).getDelivery().setStatus(DeliveryStatus.COMP);
+
+        //when
+        BulkCancelResult result = orderBulkCancelService.cancelOrders(from, null);
+
+        //then
+        em.clear();
+        Assert.assertEquals("취소된 주문 수", 2, result.getCanceledCount());
+        Assert.assertEquals("배송 완료 주문은 취소하지 않는다.", 1, result.getSkippedDeliveredCount());
+        Assert.assertEquals(OrderStatus.CANCEL, em.find(Order.class, orderId1).getStatus());
+        Assert.assertEquals(OrderStatus.CANCEL, em.find(Order.class, orderId2).getStatus());
+        Assert.assertEquals(OrderStatus.ORDER, em.find(Order.class, deliveredId).getStatus());
+        Assert.assertEquals("취소된 주문 수량만큼 재고가 원복되어야 한다.", 9, em.find(Item.class, book.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 잠금시점에_배송완료된_주문은_제외() throws Exception {
+        //given: 취소 대상으로 조회한 뒤에 배송 완료된 경우
+        Member member = new Member();
+        member.setUsername("member1");
+        member.setAddress(new Address("서울", "한강", "12345"));
+        em.persist(member);
+        Book book = Book.createBook("육각형 개발자", 10000, 10, "", "");
+        em.persist(book);
+
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+        Long deliveredId = orderService.order(member.getId(), book.getId(), 1);
+        em.find(Order.class, deliveredId).getDelivery().setStatus(DeliveryStatus.COMP);
+        em.flush();
+
+        //when
+        LockedOrders locked = orderBulkRepository.lockOrdered(List.of(orderId, deliveredId));
+
+        //then
+        Assert.assertEquals(List.of(orderId), locked.getCancelableIds());
+        Assert.assertEquals("배송 완료 주문 수", 1, locked.getDeliveredCount());
+    }
+}
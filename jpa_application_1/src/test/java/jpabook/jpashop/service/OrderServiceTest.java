@@ -5,10 +5,14 @@ import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.simplequery.OrderListDto;
+import jpabook.jpashop.repository.order.simplequery.OrderSummaryRepository;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -17,6 +21,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 import static org.junit.Assert.fail;
 
 @RunWith(SpringRunner.class)
@@ -33,6 +39,12 @@ public class OrderServiceTest {
     @Autowired
     OrderRepository orderRepository;
 
+    @Autowired
+    OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    StockService stockService;
+
     @Test
     public void 상품주문() throws Exception {
         //given
@@ -48,7 +60,8 @@ public class OrderServiceTest {
         Assert.assertEquals("상품 주문시 상태는 ORDER", OrderStatus.ORDER, getOrder.getStatus());
         Assert.assertEquals("주문한 상품 종류 사가 정확해야 한다.", 1, getOrder.getOrderItems().size());
         Assert.assertEquals("주문 가격은 가격 * 수량이다.", 10000 * orderCount, getOrder.getTotalPrice());
-        Assert.assertEquals("주문 수량만큼 재고가 수량이 줄어야 한다.", 8, book.getStockQuantity());
+        em.clear(); // 재고는 조건부 UPDATE로 차감하므로 다시 조회
+        Assert.assertEquals("주문 수량만큼 재고가 수량이 줄어야 한다.", 8, stockService.availableStock(book.getId()));
     }
 
     private Book createBook(String name, int price, int stockQuantity) {
@@ -92,9 +105,163 @@ public class OrderServiceTest {
         orderService.cancelOrder(orderId);
 
         //then
+        em.clear();
         Order getOrder = orderRepository.findOne(orderId);
         Assert.assertEquals("주문 취소시 상태는 CANCEL 이다.", OrderStatus.CANCEL, getOrder.getStatus());
-        Assert.assertEquals("주문이 취소된 상품은 그만큼 재고가 증가해야 한다.", 10, item.getStockQuantity());
+        Assert.assertEquals("주문이 취소된 상품은 그만큼 재고가 증가해야 한다.", 10, stockService.availableStock(item.getId()));
+    }
+
+    @Test
+    public void 주문요약_갱신() throws Exception {
+        //given
+        Member member = createMember();
+        Item item = createBook("육각형 개발자", 10000, 10);
+        Long orderId = orderService.order(member.getId(), item.getId(), 2);
+
+        //when
+        orderService.cancelOrder(orderId);
+
+        //then
+        OrderSummary summary = orderSummaryRepository.findOne(orderId);
+        Assert.assertEquals("주문 요약에 회원명이 저장되어야 한다.", "member1", summary.getUsername());
+        Assert.assertEquals("주문 취소시 주문 요약 상태도 CANCEL 이다.", OrderStatus.CANCEL, summary.getStatus());
+    }
+
+    @Test
+    public void 재고예약_주문과_취소() throws Exception {
+        //given
+        Member member = createMember();
+        Item item = createBook("육각형 개발자", 10000, 10);
+
+        //when
+        Long orderId = orderService.orderWithReservation(member.getId(), item.getId(), 2);
+        em.clear(); // 조건부 UPDATE는 영속성 컨텍스트를 거치지 않으므로 다시 조회
+
+        //then
+        Assert.assertEquals("주문 수량만큼 재고가 줄어야 한다.", 8, stockService.availableStock(item.getId()));
+
+        orderService.cancelReservedOrder(orderId);
+        em.clear();
+        Assert.assertEquals("주문 취소시 상태는 CANCEL 이다.", OrderStatus.CANCEL, orderRepository.findOne(orderId).getStatus());
+        Assert.assertEquals("주문이 취소된 상품은 그만큼 재고가 증가해야 한다.", 10, stockService.availableStock(item.getId()));
+    }
+
+    @Test(expected = NotEnoughStockException.class)
+    public void 재고예약_재고수량초과() throws Exception {
+        //given
+        Member member = createMember();
+        Item item = createBook("짱구는 못말려", 10000, 10);
+
+        //when
+        orderService.orderWithReservation(member.getId(), item.getId(), 11);
+
+        //then
+        fail("재고 수량 부족 예외가 발생해야 한다.");
+    }
+
+    @Test
+    public void stripe상품_여러row에서_차감() throws Exception {
+        //given
+        Member member = createMember();
+        Item item = createBook("육각형 개발자", 10000, 10);
+        em.flush();
+        stockService.stripe(item.getId(), 4); // 3, 3, 2, 2
+
+        //when: 한 stripe로는 모자라지만 합계는 충분
+        Long orderId = orderService.order(member.getId(), item.getId(), 9);
+        em.clear();
+
+        //then
+        Assert.assertEquals("stripe 합계에서 차감되어야 한다.", 1, stockService.availableStock(item.getId()));
+
+        orderService.cancelOrder(orderId);
+        em.clear();
+        Assert.assertEquals("취소하면 stripe 재고로 돌아와야 한다.", 10, stockService.availableStock(item.getId()));
+    }
+
+    @Test
+    public void 장바구니주문() throws Exception {
+        //given
+        Member member = createMember();
+        Book book1 = createBook("JPA1", 10000, 10);
+        Book book2 = createBook("JPA2", 20000, 10);
+
+        //when
+        Long orderId = orderService.checkout(member.getId(),
+                List.of(new OrderLine(book1.getId(), 1), new OrderLine(book2.getId(), 3)));
+
+        //then
+        em.clear();
+        Order getOrder = orderRepository.findOne(orderId);
+        Assert.assertEquals("주문 상품 수", 2, getOrder.getOrderItems().size());
+        Assert.assertEquals("주문 가격", 10000 + 20000 * 3, getOrder.getTotalPrice());
+        Assert.assertEquals("주문 수량만큼 재고가 수량이 줄어야 한다.", 7, stockService.availableStock(book2.getId()));
+    }
+
+    @Test
+    public void 장바구니주문_같은상품_합산() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("JPA", 10000, 10);
+
+        //when
+        Long orderId = orderService.checkout(member.getId(),
+                List.of(new OrderLine(book.getId(), 3), new OrderLine(book.getId(), 4)));
+        em.clear();
+
+        //then
+        Assert.assertEquals("같은 상품은 합산해서 차감", 3, stockService.availableStock(book.getId()));
+
+        orderService.cancelOrder(orderId);
+        em.clear();
+        Assert.assertEquals("취소하면 합산한 수량만큼 반환", 10, stockService.availableStock(book.getId()));
+    }
+
+    @Test
+    public void 주문목록_키셋페이징() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("고가 도서", 1_000_000, 10);
+        Long orderId1 = orderService.order(member.getId(), book.getId(), 1);
+        Long orderId2 = orderService.order(member.getId(), book.getId(), 2);
+        Long orderId3 = orderService.order(member.getId(), book.getId(), 3);
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMinTotalPrice(1_000_000);
+        orderSearch.setSortByTotalPrice(true);
+
+        //when
+        OrderListPage first = orderService.findOrderListPage(orderSearch, null, null, 2);
+        OrderListPage second = orderService.findOrderListPage(orderSearch, first.getNextAfterId(), first.getNextAfterTotalPrice(), 2);
+
+        //then
+        Assert.assertTrue(first.isHasNext());
+        Assert.assertEquals(List.of(orderId3, orderId2), first.getOrders().stream().map(OrderListDto::getOrderId).toList());
+        Assert.assertEquals("대표상품 이름", "고가 도서", first.getOrders().get(0).getItemName());
+        Assert.assertFalse(second.isHasNext());
+        Assert.assertEquals(List.of(orderId1), second.getOrders().stream().map(OrderListDto::getOrderId).toList());
+    }
+
+    @Test
+    public void 주문금액_저장과_검색() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook("JPA", 10000, 100);
+        Long orderId = orderService.order(member.getId(), book.getId(), 50);
+        em.flush();
+        em.clear();
+
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMinTotalPrice(500000);
+        orderSearch.setSortByTotalPrice(true);
+
+        //when
+        List<OrderListDto> orders = orderService.findOrderListPage(orderSearch, null, null, 10).getOrders();
+
+        //then
+        Assert.assertEquals("주문 금액이 가장 큰 주문이 먼저", orderId, orders.get(0).getOrderId());
+        Assert.assertEquals("저장된 주문 금액", 10000 * 50, orders.get(0).getTotalPrice());
+        Assert.assertTrue(orders.stream().allMatch(o -> o.getTotalPrice() >= 500000));
     }
 
-}
\ No newline at end of file
+}
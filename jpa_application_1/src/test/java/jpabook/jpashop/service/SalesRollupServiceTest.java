@@ -0,0 +1,126 @@
+package jpabook.jpashop.service;
+
+import jakarta.persistence.EntityManager;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.sales.ItemSalesDto;
+import jpabook.jpashop.repository.sales.MemberSalesDto;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class SalesRollupServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    SalesRollupService salesRollupService;
+
+    @Test
+    public void 주문_취소시_매출집계_증감() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook();
+        LocalDate today = LocalDate.now();
+
+        //when
+        orderService.order(member.getId(), book.getId(), 2);
+        Long canceledId = orderService.order(member.getId(), book.getId(), 3);
+        orderService.cancelOrder(canceledId);
+        salesRollupService.fold(); // 테스트 트랜잭션은 커밋되지 않으므로 직접 반영
+
+        //then
+        ItemSalesDto itemSales = findItemSales(book.getId(), today);
+        Assert.assertEquals("취소된 주문은 빠진다.", 1, itemSales.getOrderCount());
+        Assert.assertEquals(2, itemSales.getQuantity());
+        Assert.assertEquals(7000 * 2, itemSales.getAmount());
+
+        MemberSalesDto memberSales = findMemberSales(member.getId(), today);
+        Assert.assertEquals(1, memberSales.getOrderCount());
+        Assert.assertEquals(7000 * 2, memberSales.getAmount());
+    }
+
+    @Test
+    public void backfill은_증분_집계와_같다() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook();
+        LocalDate today = LocalDate.now();
+        orderService.order(member.getId(), book.getId(), 1);
+        orderService.order(member.getId(), book.getId(), 4);
+        salesRollupService.fold();
+        ItemSalesDto incremental = findItemSales(book.getId(), today);
+
+        //when
+        salesRollupService.backfill(today, today);
+
+        //then
+        ItemSalesDto rebuilt = findItemSales(book.getId(), today);
+        Assert.assertEquals(incremental, rebuilt);
+        Assert.assertEquals(7000 * 5, rebuilt.getAmount());
+    }
+
+    @Test
+    public void 이미_취소된_주문은_다시_취소할_수_없다() throws Exception {
+        //given
+        Member member = createMember();
+        Book book = createBook();
+        LocalDate today = LocalDate.now();
+        orderService.order(member.getId(), book.getId(), 1);
+        Long canceledId = orderService.order(member.getId(), book.getId(), 2);
+        orderService.cancelOrder(canceledId);
+
+        //when
+        try {
+            orderService.cancelOrder(canceledId);
+            Assert.fail("이미 취소된 주문은 예외가 발생해야 한다.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        salesRollupService.fold();
+
+        //then
+        ItemSalesDto itemSales = findItemSales(book.getId(), today);
+        Assert.assertEquals("취소는 한 번만 빠진다.", 1, itemSales.getOrderCount());
+        Assert.assertEquals(7000, itemSales.getAmount());
+    }
+
+    private ItemSalesDto findItemSales(Long itemId, LocalDate date) {
+        List<ItemSalesDto> sales = salesRollupService.findItemSales(date, date, 1000);
+        return sales.stream().filter(s -> s.getItemId().equals(itemId)).findFirst().orElseThrow();
+    }
+
+    private MemberSalesDto findMemberSales(Long memberId, LocalDate date) {
+        List<MemberSalesDto> sales = salesRollupService.findMemberSales(date, date, 1000);
+        return sales.stream().filter(s -> s.getMemberId().equals(memberId)).findFirst().orElseThrow();
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setUsername("회원1");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        return member;
+    }
+
+    private Book createBook() {
+        Book book = Book.createBook("리팩터링", 7000, 100, "마틴 파울러", "");
+        em.persist(book);
+        return book;
+    }
+}